@@ -0,0 +1,78 @@
+package tn.esprit.studentmanagement.benchmarks;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.studentmanagement.StudentManagementApplication;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Démarre l'application sur H2 (profil "benchmark") et insère les données de référence par lots JDBC.
+// Les ids sont fournis explicitement (1..n) puis les séquences Hibernate repartent après le dernier.
+final class BenchmarkContext {
+
+    private static final int SEED_BATCH = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(StudentManagementApplication.class)
+                .profiles("benchmark")
+                .properties(properties)
+                .run();
+    }
+
+    static void seed(ConfigurableApplicationContext context, int departments, int courses, int students,
+                     int enrollmentsPerStudent) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>();
+        for (int d = 1; d <= departments; d++) {
+            rows.add(new Object[]{d, "Department " + d, "Building " + d, "71000" + d, "Head " + d});
+        }
+        jdbc.batchUpdate("insert into department (id_department, name, location, phone, head, version) values (?, ?, ?, ?, ?, 0)", rows);
+
+        rows.clear();
+        for (int c = 1; c <= courses; c++) {
+            rows.add(new Object[]{c, "Course " + c, "CS" + (100 + c), 1 + c % 6, "Description of course " + c});
+        }
+        jdbc.batchUpdate("insert into course (id_course, name, code, credit, description) values (?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int s = 1; s <= students; s++) {
+            rows.add(new Object[]{s, "First" + s, "Last" + s, "student" + s + "@example.com", "2000000" + s,
+                    Date.valueOf(LocalDate.of(1995 + s % 10, 1 + s % 12, 1 + s % 28)), s + " Main Street",
+                    1 + s % departments});
+            if (rows.size() == SEED_BATCH || s == students) {
+                jdbc.batchUpdate("insert into student (id_student, first_name, last_name, email, phone, date_of_birth, "
+                        + "address, department_id_department, version) values (?, ?, ?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+
+        long enrollmentId = 0;
+        for (int s = 1; s <= students && enrollmentsPerStudent > 0; s++) {
+            for (int e = 0; e < enrollmentsPerStudent; e++) {
+                rows.add(new Object[]{++enrollmentId, Date.valueOf(LocalDate.of(2024, 9, 1)), 10.0 + (s + e) % 10, "ACTIVE",
+                        s, 1 + (s + e) % courses});
+            }
+            if (rows.size() >= SEED_BATCH || s == students) {
+                jdbc.batchUpdate("insert into enrollment (id_enrollment, enrollment_date, grade, status, "
+                        + "student_id_student, course_id_course, version) values (?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+
+        restartSequence(jdbc, "department_seq", departments);
+        restartSequence(jdbc, "course_seq", courses);
+        restartSequence(jdbc, "student_seq", students);
+        restartSequence(jdbc, "enrollment_seq", enrollmentId);
+    }
+
+    private static void restartSequence(JdbcTemplate jdbc, String sequence, long lastId) {
+        jdbc.execute("alter sequence " + sequence + " restart with " + (lastId + 1));
+    }
+}
@@ -0,0 +1,57 @@
+package tn.esprit.studentmanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.services.IEnrollment;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Création d'une inscription via EnrollmentService.saveEnrollment
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrollmentSaveBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int COURSES = 50;
+
+    private ConfigurableApplicationContext context;
+    private IEnrollment enrollmentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 20, COURSES, STUDENTS, 0);
+        enrollmentService = context.getBean(IEnrollment.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Enrollment saveEnrollment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Student student = new Student();
+        student.setIdStudent(1L + random.nextInt(STUDENTS));
+        Course course = new Course();
+        course.setIdCourse(1L + random.nextInt(COURSES));
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setEnrollmentDate(LocalDate.of(2024, 9, 1));
+        enrollment.setStatus(Status.ACTIVE);
+        enrollment.setGrade(12.5);
+        return enrollmentService.saveEnrollment(enrollment);
+    }
+}
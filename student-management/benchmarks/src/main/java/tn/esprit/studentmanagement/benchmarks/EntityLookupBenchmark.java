@@ -0,0 +1,65 @@
+package tn.esprit.studentmanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.services.IDepartmentService;
+import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lecture d'une entité par id, avec et sans le cache d'entités
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityLookupBenchmark {
+
+    private static final int DEPARTMENTS = 20;
+    private static final int STUDENTS = 10_000;
+    private static final int ENROLLMENTS_PER_STUDENT = 2;
+
+    @Param({"true", "false"})
+    boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private IStudentService studentService;
+    private IDepartmentService departmentService;
+    private IEnrollment enrollmentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("app.cache.enabled=" + cacheEnabled);
+        BenchmarkContext.seed(context, DEPARTMENTS, 50, STUDENTS, ENROLLMENTS_PER_STUDENT);
+        studentService = context.getBean(IStudentService.class);
+        departmentService = context.getBean(IDepartmentService.class);
+        enrollmentService = context.getBean(IEnrollment.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Student getStudentById() {
+        return studentService.getStudentById(1L + ThreadLocalRandom.current().nextInt(STUDENTS));
+    }
+
+    @Benchmark
+    public Department getDepartmentById() {
+        return departmentService.getDepartmentById(1L + ThreadLocalRandom.current().nextInt(DEPARTMENTS));
+    }
+
+    @Benchmark
+    public Enrollment getEnrollmentById() {
+        return enrollmentService.getEnrollmentById(
+                1L + ThreadLocalRandom.current().nextInt(STUDENTS * ENROLLMENTS_PER_STUDENT));
+    }
+}
@@ -0,0 +1,93 @@
+package tn.esprit.studentmanagement.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.entities.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rendu JSON du graphe Student -> Department / Enrollment -> Course, avec l'ObjectMapper de Spring MVC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Student student;
+    private Enrollment enrollment;
+    private StudentTranscript transcript;
+    private List<Enrollment> enrollmentPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Department department = new Department();
+        department.setIdDepartment(1L);
+        department.setName("Computer Science");
+        department.setLocation("Building A");
+        department.setPhone("71000000");
+        department.setHead("Dr. Smith");
+
+        student = new Student();
+        student.setIdStudent(1L);
+        student.setFirstName("John");
+        student.setLastName("Doe");
+        student.setEmail("john.doe@example.com");
+        student.setPhone("20000000");
+        student.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        student.setAddress("1 Main Street");
+        student.setDepartment(department);
+
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            Course course = new Course();
+            course.setIdCourse((long) i);
+            course.setName("Course " + i);
+            course.setCode("CS" + (100 + i));
+            course.setCredit(1 + i % 6);
+            course.setDescription("Description of course " + i);
+            Enrollment e = new Enrollment();
+            e.setIdEnrollment((long) i);
+            e.setEnrollmentDate(LocalDate.of(2024, 9, 1));
+            e.setGrade(10.0 + i % 10);
+            e.setStatus(Status.ACTIVE);
+            e.setStudent(student);
+            e.setCourse(course);
+            enrollments.add(e);
+        }
+        student.setEnrollments(enrollments);
+        enrollment = enrollments.get(0);
+        transcript = StudentTranscript.from(student);
+        enrollmentPage = enrollments;
+    }
+
+    @Benchmark
+    public byte[] studentWithDepartment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] enrollmentWithStudentAndCourse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(enrollment);
+    }
+
+    @Benchmark
+    public byte[] studentTranscript() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transcript);
+    }
+
+    @Benchmark
+    public byte[] enrollmentList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(enrollmentPage);
+    }
+}
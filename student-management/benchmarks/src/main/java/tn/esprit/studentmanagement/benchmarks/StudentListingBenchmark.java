@@ -0,0 +1,48 @@
+package tn.esprit.studentmanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Listing complet de la table student à 10k / 100k / 1M lignes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StudentListingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private IStudentService studentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 20, 50, rows, 0);
+        studentService = context.getBean(IStudentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Student> getAllStudents() {
+        return studentService.getAllStudents();
+    }
+
+    @Benchmark
+    public List<StudentSummary> getStudentsSummary() {
+        return studentService.getStudentsSummary();
+    }
+}
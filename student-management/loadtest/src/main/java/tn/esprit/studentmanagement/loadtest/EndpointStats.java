@@ -0,0 +1,93 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Résultats d'une opération : latences en microsecondes (HdrHistogram, 3 chiffres significatifs)
+// et réponses par catégorie. 409 (doublon, cours complet, version) et 503 (limite de concurrence du serveur)
+// sont des refus attendus sous charge, comptés à part des erreurs. Une requête abandonnée côté client
+// (max-in-flight) entre dans les percentiles au timeout : l'écarter flatterait les résultats.
+final class EndpointStats {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    // status 0 : pas de réponse (timeout, connexion refusée)
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        if (status >= 200 && status < 400) {
+            ok.increment();
+        } else if (status == 409) {
+            conflicts.increment();
+        } else if (status == 503) {
+            shed.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    // Requête non envoyée : max-in-flight atteint côté client, latence comptée jusqu'à son timeout
+    void drop(long latencyNanos) {
+        latencies.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        dropped.increment();
+    }
+
+    // Requêtes prévues par le scénario, abandonnées comprises
+    long completed() {
+        return latencies.getTotalCount();
+    }
+
+    long answered() {
+        return completed() - dropped.sum();
+    }
+
+    void addTo(EndpointStats total) {
+        total.latencies.add(latencies);
+        total.ok.add(ok.sum());
+        total.conflicts.add(conflicts.sum());
+        total.shed.add(shed.sum());
+        total.errors.add(errors.sum());
+        total.dropped.add(dropped.sum());
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", completed());
+        summary.put("throughput", answered() / seconds);
+        summary.put("ok", ok.sum());
+        summary.put("conflicts", conflicts.sum());
+        summary.put("shed", shed.sum());
+        summary.put("errors", errors.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p90Ms", millis(latencies.getValueAtPercentile(90)));
+        summary.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latencies.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,84 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Générateur en modèle ouvert : une requête toutes les 1/rps secondes, quel que soit le temps de réponse.
+// La latence est mesurée depuis l'heure d'envoi prévue (et non réelle) : un serveur qui ralentit
+// n'allège pas la charge et le retard pris s'ajoute aux percentiles (pas d'omission coordonnée).
+// Une requête qu'on n'envoie pas faute de créneau libre compte pour le timeout qu'elle aurait subi.
+final class LoadGenerator {
+    // Même suite de requêtes d'un run à l'autre
+    private static final long RANDOM_SEED = 20240902L;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Scenario scenario;
+    private final int rps;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Random random = new Random(RANDOM_SEED);
+
+    LoadGenerator(URI baseUri, Scenario scenario, int rps, int maxInFlight) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUri = baseUri;
+        this.scenario = scenario;
+        this.rps = rps;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    // Statistiques par opération, dans l'ordre du scénario ; attend la fin des requêtes encore en cours
+    Map<String, EndpointStats> run(Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        scenario.operations().forEach(operation -> stats.put(operation.name(), new EndpointStats(operation.name())));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario.Operation operation = scenario.next(random);
+            send(operation.request().apply(random, baseUri), intended, stats.get(operation.name()));
+        }
+        drain();
+        return stats;
+    }
+
+    private void send(HttpRequest request, long intended, EndpointStats stats) {
+        if (!inFlight.tryAcquire()) {
+            stats.drop(System.nanoTime() - intended + Scenario.REQUEST_TIMEOUT.toNanos());
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    stats.record(response == null ? 0 : response.statusCode(), System.nanoTime() - intended);
+                    inFlight.release();
+                });
+    }
+
+    // Toutes les réponses reçues quand tous les créneaux sont libres (au pire après le timeout des requêtes)
+    private void drain() throws InterruptedException {
+        if (inFlight.tryAcquire(maxInFlight, Scenario.REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import tn.esprit.studentmanagement.StudentManagementApplication;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Démarre l'application (profil "loadtest"), insère les données, rejoue le scénario à la cadence demandée
+// puis affiche débit et percentiles par endpoint (copie JSON dans result).
+// Client et serveur partagent la même JVM et la même machine : comparer des runs entre eux, pas à la production.
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentManagementApplication.class)
+                .profiles("loadtest")
+                .run(options.applicationArgs().toArray(String[]::new))) {
+            long seedStart = System.nanoTime();
+            Seeder.seed(context, options);
+            System.out.printf("Seeded %d departments, %d courses, %d students, %d enrollments in %d ms%n",
+                    options.departments(), options.courses(), options.students(), Seeder.enrollments(options),
+                    (System.nanoTime() - seedStart) / 1_000_000);
+
+            Environment environment = context.getEnvironment();
+            URI baseUri = URI.create("http://localhost:" + environment.getRequiredProperty("local.server.port")
+                    + environment.getProperty("server.servlet.context-path", ""));
+            LoadGenerator generator = new LoadGenerator(baseUri, Scenario.registrationDay(options),
+                    options.rps(), options.maxInFlight());
+            if (!options.warmup().isZero()) {
+                System.out.printf("Warming up for %s at %d req/s%n", options.warmup(), options.rps());
+                generator.run(options.warmup());
+            }
+            System.out.printf("Measuring for %s at %d req/s against %s%n", options.duration(), options.rps(), baseUri);
+            Map<String, EndpointStats> stats = generator.run(options.duration());
+            report(options, stats);
+        }
+    }
+
+    private static void report(LoadTestOptions options, Map<String, EndpointStats> stats) throws Exception {
+        double seconds = options.duration().toNanos() / 1e9;
+        EndpointStats total = new EndpointStats("TOTAL");
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.addTo(total);
+            endpoints.add(endpoint.summary(seconds));
+        }
+        endpoints.add(total.summary(seconds));
+
+        String header = "%-22s %9s %9s %8s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n";
+        System.out.printf(header, "endpoint", "requests", "req/s", "ok", "409", "503", "errors", "dropped",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map<String, Object> row : endpoints) {
+            System.out.printf("%-22s %9d %9.1f %8d %8d %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("endpoint"), row.get("requests"), row.get("throughput"), row.get("ok"), row.get("conflicts"),
+                    row.get("shed"), row.get("errors"), row.get("dropped"), row.get("p50Ms"), row.get("p90Ms"),
+                    row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetRps", options.rps());
+        result.put("durationSeconds", seconds);
+        result.put("warmupSeconds", options.warmup().toSeconds());
+        result.put("students", options.students());
+        result.put("courses", options.courses());
+        result.put("enrollments", Seeder.enrollments(options));
+        result.put("endpoints", endpoints);
+        Files.createDirectories(options.result().toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(options.result().toFile(), result);
+        System.out.println("Results written to " + options.result());
+    }
+}
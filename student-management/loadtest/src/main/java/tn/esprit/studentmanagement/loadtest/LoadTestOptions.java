@@ -0,0 +1,84 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Arguments cle=valeur. Les clés inconnues sont des propriétés Spring transmises à l'application démarrée
+// (ex. spring.datasource.url=jdbc:mysql://... pour un MySQL local à la place de H2).
+//   rps            requêtes par seconde visées (modèle ouvert : cadence tenue même si le serveur ralentit)
+//   duration       durée de la mesure ; warmup : durée de chauffe, non comptée
+//   max-in-flight  requêtes simultanées au plus côté client ; au-delà, la requête est comptée « dropped »
+//                  et sa latence vaut le timeout des requêtes (incluse dans les percentiles)
+//   departments, courses, students, enrollments-per-student : volume inséré avant le test
+//   course-capacity  places par cours (défaut : illimité) ; mix : poids par opération, ex. getStudent=60,createEnrollment=40
+record LoadTestOptions(int rps, Duration duration, Duration warmup, int maxInFlight,
+                       int departments, int courses, int students, int enrollmentsPerStudent,
+                       Integer courseCapacity, Map<String, Integer> mix, Path result,
+                       List<String> applicationArgs) {
+
+    private static final List<String> KEYS = List.of("rps", "duration", "warmup", "max-in-flight", "departments",
+            "courses", "students", "enrollments-per-student", "course-capacity", "mix", "result");
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            if (KEYS.contains(key)) {
+                values.put(key, arg.substring(eq + 1));
+            } else {
+                applicationArgs.add("--" + arg);
+            }
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rps", "200")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "15s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "512")),
+                Integer.parseInt(values.getOrDefault("departments", "20")),
+                Integer.parseInt(values.getOrDefault("courses", "200")),
+                Integer.parseInt(values.getOrDefault("students", "20000")),
+                Integer.parseInt(values.getOrDefault("enrollments-per-student", "4")),
+                values.containsKey("course-capacity") ? Integer.valueOf(values.get("course-capacity")) : null,
+                parseMix(values.get("mix")),
+                Path.of(values.getOrDefault("result", "target/loadtest-result.json")),
+                List.copyOf(applicationArgs));
+        if (options.rps() <= 0 || options.maxInFlight() <= 0) {
+            throw new IllegalArgumentException("rps and max-in-flight must be > 0");
+        }
+        if (options.departments() <= 0 || options.courses() <= 0 || options.students() <= 0) {
+            throw new IllegalArgumentException("departments, courses and students must be > 0");
+        }
+        // Une inscription par couple (étudiant, cours) : contrainte uk_enrollment_student_course
+        if (options.enrollmentsPerStudent() > options.courses()) {
+            throw new IllegalArgumentException("enrollments-per-student cannot exceed courses");
+        }
+        return options;
+    }
+
+    // null : mix par défaut de Scenario
+    private static Map<String, Integer> parseMix(String mix) {
+        if (mix == null || mix.isBlank()) {
+            return null;
+        }
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":|=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in mix, got: " + entry);
+            }
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
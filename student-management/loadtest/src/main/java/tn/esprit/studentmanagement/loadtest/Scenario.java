@@ -0,0 +1,111 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+// Mix de trafic d'un jour d'inscriptions : surtout des inscriptions (dont une partie de doublons ou de cours
+// complets, 409 attendus) et des consultations de relevés / fiches, le reste en listes et mises à jour.
+// Ids tirés dans les plages insérées par Seeder.
+final class Scenario {
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String JSON = "application/json";
+
+    record Operation(String name, int weight, BiFunction<Random, URI, HttpRequest> request) {
+    }
+
+    private final List<Operation> operations;
+    private final int[] cumulativeWeights;
+
+    private Scenario(List<Operation> operations) {
+        this.operations = operations;
+        this.cumulativeWeights = new int[operations.size()];
+        int total = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            total += operations.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Scenario mix has no operation with a positive weight");
+        }
+    }
+
+    static Scenario registrationDay(LoadTestOptions options) {
+        int students = options.students();
+        int departments = options.departments();
+        int courses = options.courses();
+        long enrollments = Math.max(1, Seeder.enrollments(options));
+
+        Map<String, Operation> all = new LinkedHashMap<>();
+        add(all, "createEnrollment", 30, (random, base) -> post(base, "/Enrollment/createEnrollment",
+                "{\"enrollmentDate\":\"2024-09-02\",\"status\":\"ACTIVE\",\"student\":{\"idStudent\":"
+                        + id(random, students) + "},\"course\":{\"idCourse\":" + id(random, courses) + "}}"));
+        add(all, "getStudentTranscript", 15, (random, base) -> get(base, "/students/getStudentTranscript/" + id(random, students)));
+        add(all, "getStudent", 15, (random, base) -> get(base, "/students/getStudent/" + id(random, students)));
+        add(all, "searchStudents", 10, (random, base) -> get(base, "/students/searchStudents?size=20&departmentId=" + id(random, departments)));
+        add(all, "getStudentsPage", 5, (random, base) -> get(base, "/students/getStudentsPage?size=50"));
+        add(all, "getAllDepartment", 5, (random, base) -> get(base, "/Depatment/getAllDepartment"));
+        add(all, "getDepartment", 5, (random, base) -> get(base, "/Depatment/getDepartment/" + id(random, departments)));
+        add(all, "getEnrollment", 5, (random, base) -> get(base, "/Enrollment/getEnrollment/" + id(random, enrollments)));
+        add(all, "patchEnrollment", 5, (random, base) -> patch(base, "/Enrollment/patchEnrollment/" + id(random, enrollments),
+                "{\"grade\":" + (8 + random.nextInt(13)) + "}"));
+        add(all, "patchStudent", 5, (random, base) -> patch(base, "/students/patchStudent/" + id(random, students),
+                "{\"phone\":\"" + (20_000_000 + random.nextInt(80_000_000)) + "\"}"));
+
+        if (options.mix() == null) {
+            return new Scenario(List.copyOf(all.values()));
+        }
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((name, weight) -> {
+            Operation operation = all.get(name);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + name + " (known: " + all.keySet() + ")");
+            }
+            weighted.add(new Operation(name, weight, operation.request()));
+        });
+        return new Scenario(weighted);
+    }
+
+    List<Operation> operations() {
+        return operations;
+    }
+
+    Operation next(Random random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void add(Map<String, Operation> all, String name, int weight, BiFunction<Random, URI, HttpRequest> request) {
+        all.put(name, new Operation(name, weight, request));
+    }
+
+    private static long id(Random random, long max) {
+        return 1 + (long) (random.nextDouble() * max);
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(REQUEST_TIMEOUT)
+                .header("Accept", JSON).GET().build();
+    }
+
+    private static HttpRequest post(URI base, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", JSON).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static HttpRequest patch(URI base, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", JSON).method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+}
@@ -0,0 +1,100 @@
+package tn.esprit.studentmanagement.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import tn.esprit.studentmanagement.services.CourseCatalog;
+import tn.esprit.studentmanagement.services.IGradeStatisticsService;
+
+import java.sql.Date;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Données de départ insérées par lots JDBC (ids 1..n, comme BenchmarkContext), puis séquences Hibernate
+// repositionnées après le dernier id et caches mémoire de l'application rechargés.
+final class Seeder {
+
+    private static final int SEED_BATCH = 10_000;
+
+    private Seeder() {
+    }
+
+    static void seed(ConfigurableApplicationContext context, LoadTestOptions options) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        int departments = options.departments();
+        int courses = options.courses();
+        int students = options.students();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int d = 1; d <= departments; d++) {
+            rows.add(new Object[]{d, "Department " + d, "Building " + d, "71000" + d, "Head " + d});
+        }
+        jdbc.batchUpdate("insert into department (id_department, name, location, phone, head, version) values (?, ?, ?, ?, ?, 0)", rows);
+
+        rows.clear();
+        for (int c = 1; c <= courses; c++) {
+            rows.add(new Object[]{c, "Course " + c, "CS" + (100 + c), 1 + c % 6, "Description of course " + c, options.courseCapacity()});
+        }
+        jdbc.batchUpdate("insert into course (id_course, name, code, credit, description, capacity) values (?, ?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int s = 1; s <= students; s++) {
+            rows.add(new Object[]{s, "First" + s, "Last" + s, "student" + s + "@example.com", "2000000" + s,
+                    Date.valueOf(LocalDate.of(1995 + s % 10, 1 + s % 12, 1 + s % 28)), s + " Main Street",
+                    1 + s % departments});
+            if (rows.size() == SEED_BATCH || s == students) {
+                jdbc.batchUpdate("insert into student (id_student, first_name, last_name, email, phone, date_of_birth, "
+                        + "address, department_id_department, version) values (?, ?, ?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+
+        // Cours consécutifs : un couple (étudiant, cours) n'apparaît qu'une fois
+        long enrollmentId = 0;
+        for (int s = 1; s <= students && options.enrollmentsPerStudent() > 0; s++) {
+            for (int e = 0; e < options.enrollmentsPerStudent(); e++) {
+                rows.add(new Object[]{++enrollmentId, Date.valueOf(LocalDate.of(2024, 9, 1)), 10.0 + (s + e) % 10, "ACTIVE",
+                        s, 1 + (s + e) % courses});
+            }
+            if (rows.size() >= SEED_BATCH || s == students) {
+                jdbc.batchUpdate("insert into enrollment (id_enrollment, enrollment_date, grade, status, "
+                        + "student_id_student, course_id_course, version) values (?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+
+        boolean mysql = isMySql(jdbc);
+        restartSequence(jdbc, mysql, "department_seq", departments);
+        restartSequence(jdbc, mysql, "course_seq", courses);
+        restartSequence(jdbc, mysql, "student_seq", students);
+        restartSequence(jdbc, mysql, "enrollment_seq", enrollmentId);
+
+        // Écrit en JDBC direct : catalogue des cours et statistiques de notes à recharger
+        context.getBean(CourseCatalog.class).reload();
+        context.getBean(IGradeStatisticsService.class).rebuild();
+    }
+
+    static long enrollments(LoadTestOptions options) {
+        return (long) options.students() * options.enrollmentsPerStudent();
+    }
+
+    // MySQL n'a pas de séquences : Hibernate les émule par une table <séquence>(next_val)
+    private static void restartSequence(JdbcTemplate jdbc, boolean mysql, String sequence, long lastId) {
+        if (mysql) {
+            jdbc.update("update " + sequence + " set next_val = ?", lastId + 1);
+        } else {
+            jdbc.execute("alter sequence " + sequence + " restart with " + (lastId + 1));
+        }
+    }
+
+    private static boolean isMySql(JdbcTemplate jdbc) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbc.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read database product name", e);
+        }
+    }
+}
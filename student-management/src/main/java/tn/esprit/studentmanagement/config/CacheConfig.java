@@ -0,0 +1,72 @@
+package tn.esprit.studentmanagement.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+// Cache autour de la transaction (ordre avant celui de @Transactional) : un hit n'ouvre ni transaction
+// ni connexion, et les évictions passent après le commit
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableConfigurationProperties(EntityCacheProperties.class)
+@ConditionalOnProperty(prefix = "app.cache", name = "enabled", matchIfMissing = true)
+public class CacheConfig {
+    private static final Logger logger = LogManager.getLogger(CacheConfig.class);
+
+    public static final String STUDENTS = "students";
+    public static final String DEPARTMENTS = "departments";
+    public static final String ENROLLMENTS = "enrollments";
+    public static final String TRANSCRIPTS = "transcripts";
+
+    private static final List<String> ENTITY_CACHES = List.of(STUDENTS, DEPARTMENTS, ENROLLMENTS, TRANSCRIPTS);
+    private static final Map<String, Resource> CACHE_RESOURCES = Map.of(
+            STUDENTS, Resource.STUDENT,
+            DEPARTMENTS, Resource.DEPARTMENT,
+            ENROLLMENTS, Resource.ENROLLMENT,
+            TRANSCRIPTS, Resource.TRANSCRIPT);
+
+    // Les évictions passent après le commit, donc après l'étiquette avancée par ResourceVersionTracker :
+    // entre les deux, un GET servi depuis le cache enverrait l'ancien état sous la nouvelle étiquette.
+    // L'étiquette de la ressource est donc avancée de nouveau une fois l'entrée évincée.
+    @Bean
+    public CacheManager cacheManager(EntityCacheProperties properties, ObjectProvider<ResourceVersionTracker> versionTracker) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Resource resource = CACHE_RESOURCES.get(name);
+                if (resource == null) {
+                    return super.adaptCaffeineCache(name, cache);
+                }
+                return new EvictionTrackingCache(name, cache, isAllowNullValues(),
+                        () -> versionTracker.ifAvailable(tracker -> tracker.changed(resource)));
+            }
+        };
+        for (String name : ENTITY_CACHES) {
+            EntityCacheProperties.Spec spec = properties.specs()
+                    .getOrDefault(name, new EntityCacheProperties.Spec(null, null));
+            logger.info("Cache '{}': maximumSize={}, ttl={}", name, spec.maximumSize(), spec.ttl());
+            // recordStats() alimente les métriques cache.gets (hit/miss) et cache.evictions de l'actuator
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(spec.maximumSize())
+                    .expireAfterWrite(spec.ttl())
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
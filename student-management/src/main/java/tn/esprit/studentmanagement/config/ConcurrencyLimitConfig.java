@@ -0,0 +1,53 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Opt-in : app.concurrency.limit.enabled, par défaut actif seulement avec les threads virtuels
+// (avec le pool de threads Tomcat, le nombre de threads borne déjà les requêtes simultanées)
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnExpression("${app.concurrency.limit.enabled:${spring.threads.virtual.enabled:false}}")
+public class ConcurrencyLimitConfig {
+    private static final Logger logger = LogManager.getLogger(ConcurrencyLimitConfig.class);
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    // Aussi TransactionExecutionListener : Spring Boot l'ajoute au gestionnaire de transactions
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimiter(ConcurrencyLimitProperties properties, DataSource dataSource,
+                                                     MeterRegistry meterRegistry) {
+        int maxConcurrent = properties.maxConcurrent() != null ? properties.maxConcurrent() : poolSize(dataSource);
+        logger.info("Concurrency limit: maxConcurrent={}, acquireTimeout={}", maxConcurrent, properties.acquireTimeout());
+        return new ConcurrencyLimitFilter(maxConcurrent, properties.acquireTimeout(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimitFilter concurrencyLimiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimiter);
+        // Juste après l'observation HTTP : les refus apparaissent en 503 dans http.server.requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not read the connection pool size, using {}", DEFAULT_POOL_SIZE, e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.studentmanagement.config;
+
+// Plus de créneau libre pour travailler en base (ConcurrencyLimitFilter) : 503 + Retry-After
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(long retryAfterSeconds) {
+        super("Too many concurrent requests");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
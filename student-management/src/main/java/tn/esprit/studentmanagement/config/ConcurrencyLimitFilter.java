@@ -0,0 +1,100 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Borne le nombre de requêtes API qui travaillent en base en même temps (par défaut : taille du pool JDBC).
+// Avec les threads virtuels, Tomcat n'a plus de limite de threads : sans cette borne, des milliers
+// de requêtes attendraient une connexion Hikari (connection-timeout) au lieu d'être refusées vite.
+// Le créneau n'est pris qu'à la première transaction de la requête (beforeBegin) et rendu à la fin de
+// celle-ci : un 304 ou une lecture servie par le cache ne consomme rien et n'est jamais refusé.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements TransactionExecutionListener {
+    static final String REJECTED_METRIC = "app.concurrency.limit.rejected";
+    static final String AVAILABLE_METRIC = "app.concurrency.limit.available";
+
+    private static final Logger logger = LogManager.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+    // Requête en cours sur ce thread : null hors requête API (tâches de fond, actuator)
+    private final ThreadLocal<Slot> currentRequest = new ThreadLocal<>();
+
+    public ConcurrencyLimitFilter(int maxConcurrent, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be >= 1");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.retryAfterSeconds = Math.max(1, acquireTimeout.toSeconds());
+        this.rejected = Counter.builder(REJECTED_METRIC).register(meterRegistry);
+        Gauge.builder(AVAILABLE_METRIC, permits, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    // Actuator (health, prometheus) reste accessible même quand l'API est saturée
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Slot slot = new Slot(request.getMethod() + " " + request.getRequestURI());
+        currentRequest.set(slot);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            currentRequest.remove();
+            if (slot.acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    // Nouvelle transaction sur le thread d'une requête : prend son créneau, une seule fois par requête.
+    // Levée avant doBegin, l'exception n'ouvre aucune connexion ; ApiExceptionHandler répond 503 + Retry-After
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        Slot slot = currentRequest.get();
+        if (slot == null || slot.acquired) {
+            return;
+        }
+        try {
+            slot.acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!slot.acquired) {
+            rejected.increment();
+            // DEBUG : en surcharge, un WARN par requête refusée saturerait les logs (le compteur suffit)
+            logger.debug("Rejecting {}: no free slot", slot.request);
+            throw new ConcurrencyLimitExceededException(retryAfterSeconds);
+        }
+    }
+
+    private static final class Slot {
+        private final String request;
+        private boolean acquired;
+
+        Slot(String request) {
+            this.request = request;
+        }
+    }
+}
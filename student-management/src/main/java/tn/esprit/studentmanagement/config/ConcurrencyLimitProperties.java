@@ -0,0 +1,15 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// enabled absent : suit spring.threads.virtual.enabled (voir ConcurrencyLimitConfig).
+// maxConcurrent absent : taille maximale du pool Hikari
+@ConfigurationProperties(prefix = "app.concurrency.limit")
+public record ConcurrencyLimitProperties(Boolean enabled, Integer maxConcurrent, Duration acquireTimeout) {
+
+    public ConcurrencyLimitProperties {
+        acquireTimeout = acquireTimeout == null ? Duration.ofSeconds(2) : acquireTimeout;
+    }
+}
@@ -0,0 +1,82 @@
+package tn.esprit.studentmanagement.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tn.esprit.studentmanagement.controllers.ConditionalGet;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+
+import java.util.Enumeration;
+
+// Avant le contrôleur : 304 si l'ETag ou la date reçus correspondent encore à la vue,
+// sans appel au service ni sérialisation. Sinon pose ETag (listes), Last-Modified et Cache-Control.
+class ConditionalGetInterceptor implements HandlerInterceptor {
+    private final ResourceVersionTracker versionTracker;
+    private final String cacheControl;
+
+    ConditionalGetInterceptor(ResourceVersionTracker versionTracker, CacheControl cacheControl) {
+        this.versionTracker = versionTracker;
+        this.cacheControl = cacheControl.getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+        ConditionalGet conditional = method.getMethodAnnotation(ConditionalGet.class);
+        if (conditional == null) {
+            return true;
+        }
+        String tag = versionTracker.tag(conditional.value());
+        long lastModified = versionTracker.lastModified(conditional.value());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        if (!conditional.item()) {
+            response.setHeader(HttpHeaders.ETAG, "W/\"" + tag + "\"");
+        }
+        String matched = matchingEntityTag(request, tag);
+        boolean notModified = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                ? matched != null : notModifiedSince(request, lastModified);
+        if (notModified) {
+            if (matched != null && conditional.item()) {
+                response.setHeader(HttpHeaders.ETAG, matched);
+            }
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    // Liste : W/"<tag>" ; entité : W/"<version>-<tag>" (la version seule ne suffit pas, le JSON embarque d'autres entités)
+    private static String matchingEntityTag(HttpServletRequest request, String tag) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (headers.hasMoreElements()) {
+            for (String candidate : headers.nextElement().split(",")) {
+                String value = candidate.trim();
+                String opaque = value.startsWith("W/") ? value.substring(2) : value;
+                opaque = opaque.length() >= 2 && opaque.startsWith("\"") && opaque.endsWith("\"")
+                        ? opaque.substring(1, opaque.length() - 1) : opaque;
+                if (opaque.equals(tag) || opaque.endsWith("-" + tag)) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Résolution d'une seconde (format HTTP) : seulement sans If-None-Match, que les navigateurs envoient dès qu'ils ont un ETag
+    private static boolean notModifiedSince(HttpServletRequest request, long lastModified) {
+        long since;
+        try {
+            since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return since >= 0 && lastModified / 1000 <= since / 1000;
+    }
+}
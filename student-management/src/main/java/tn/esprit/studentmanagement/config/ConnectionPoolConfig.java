@@ -0,0 +1,36 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Réglages des pools : profil "pool" (application-pool.properties).
+// Chaque pool Hikari (primaire, réplique) reçoit le tracker Micrometer habituel enveloppé par
+// PoolSaturationTracker ; Spring Boot n'installe alors pas le sien.
+@Configuration
+@EnableConfigurationProperties(ConnectionPoolProperties.class)
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static BeanPostProcessor poolSaturationTrackerInstaller(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                  ObjectProvider<ConnectionPoolProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null
+                        && dataSource.getMetricRegistry() == null) {
+                    MeterRegistry registry = meterRegistry.getObject();
+                    MicrometerMetricsTrackerFactory micrometer = new MicrometerMetricsTrackerFactory(registry);
+                    dataSource.setMetricsTrackerFactory((poolName, poolStats) -> new PoolSaturationTracker(
+                            micrometer.create(poolName, poolStats), poolName, poolStats, properties.getObject(), registry));
+                }
+                return bean;
+            }
+        };
+    }
+}
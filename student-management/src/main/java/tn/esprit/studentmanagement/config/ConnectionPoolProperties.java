@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Attente d'une connexion au-delà de acquireWarnThreshold : compteur db.pool.slow.acquires
+// et avertissement, au plus un par warnInterval et par pool
+@ConfigurationProperties(prefix = "app.datasource.pool")
+public record ConnectionPoolProperties(Duration acquireWarnThreshold, Duration warnInterval) {
+
+    public ConnectionPoolProperties {
+        acquireWarnThreshold = acquireWarnThreshold == null ? Duration.ofMillis(50) : acquireWarnThreshold;
+        warnInterval = warnInterval == null ? Duration.ofMinutes(1) : warnInterval;
+    }
+}
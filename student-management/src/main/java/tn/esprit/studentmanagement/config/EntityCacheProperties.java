@@ -0,0 +1,24 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.cache")
+public record EntityCacheProperties(Boolean enabled, Map<String, Spec> specs) {
+
+    public EntityCacheProperties {
+        enabled = enabled == null || enabled;
+        specs = specs == null ? new LinkedHashMap<>() : specs;
+    }
+
+    // Taille maximale et durée de vie (expire-after-write) d'un cache
+    public record Spec(Long maximumSize, Duration ttl) {
+        public Spec {
+            maximumSize = maximumSize == null ? 10_000L : maximumSize;
+            ttl = ttl == null ? Duration.ofMinutes(10) : ttl;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package tn.esprit.studentmanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+// Cache Caffeine qui signale chaque éviction, une fois l'entrée retirée (voir CacheConfig)
+class EvictionTrackingCache extends CaffeineCache {
+    private final Runnable onEviction;
+
+    EvictionTrackingCache(String name, Cache<Object, Object> cache, boolean allowNullValues, Runnable onEviction) {
+        super(name, cache, allowNullValues);
+        this.onEviction = onEviction;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        onEviction.run();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = super.evictIfPresent(key);
+        onEviction.run();
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        onEviction.run();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = super.invalidate();
+        onEviction.run();
+        return invalidated;
+    }
+}
@@ -0,0 +1,31 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import tn.esprit.studentmanagement.services.GradeWriteBehind;
+
+// Initialisation paresseuse (profil "faststart", spring.main.lazy-initialization=true) : restent créés au
+// démarrage les contrôleurs et tout ce dont ils dépendent (services, repositories, EntityManagerFactory,
+// pools), pour que la première requête ne paie pas leur création, et GradeWriteBehind, qui rejoue le journal
+// des notes et lance l'écriture périodique. Sans effet hors initialisation paresseuse.
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerRequestPath() {
+        return (beanName, beanDefinition, beanType) -> isEager(beanType);
+    }
+
+    static boolean isEager(Class<?> beanType) {
+        if (beanType == null) {
+            return false;
+        }
+        return AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class)
+                || GradeWriteBehind.class.isAssignableFrom(beanType);
+    }
+}
@@ -0,0 +1,37 @@
+package tn.esprit.studentmanagement.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+
+// Déclaré ici (WebMvcConfigurer) pour être aussi présent dans les tests @WebMvcTest
+@Configuration
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class HttpCacheConfig implements WebMvcConfigurer {
+    private static final Logger logger = LogManager.getLogger(HttpCacheConfig.class);
+
+    private final HttpCacheProperties properties;
+    private final ResourceVersionTracker versionTracker = new ResourceVersionTracker();
+
+    public HttpCacheConfig(HttpCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ResourceVersionTracker resourceVersionTracker() {
+        return versionTracker;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.enabled()) {
+            logger.info("Conditional GET enabled, Cache-Control: {}", properties.cacheControl().getHeaderValue());
+            registry.addInterceptor(new ConditionalGetInterceptor(versionTracker, properties.cacheControl()));
+        }
+    }
+}
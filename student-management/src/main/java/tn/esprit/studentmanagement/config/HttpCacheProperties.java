@@ -0,0 +1,22 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+// maxAge 0 : le navigateur revalide à chaque appel (304 si rien n'a changé).
+// Désactivé par défaut : les étiquettes suivent les écritures de cette instance seulement (ResourceVersionTracker)
+@ConfigurationProperties(prefix = "app.http.cache")
+public record HttpCacheProperties(Boolean enabled, Duration maxAge) {
+
+    public HttpCacheProperties {
+        enabled = enabled != null && enabled;
+        maxAge = maxAge == null ? Duration.ZERO : maxAge;
+    }
+
+    // private : réponses propres à l'utilisateur, jamais stockées par un cache partagé
+    CacheControl cacheControl() {
+        return maxAge.isZero() ? CacheControl.noCache().cachePrivate() : CacheControl.maxAge(maxAge).cachePrivate();
+    }
+}
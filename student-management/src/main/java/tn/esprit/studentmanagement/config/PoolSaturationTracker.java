@@ -0,0 +1,89 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Enveloppe le tracker Micrometer de Hikari (hikaricp.connections.active/idle/pending/acquire...) :
+// compte les acquisitions lentes et les timeouts, et avertit avec l'état du pool à ce moment-là
+class PoolSaturationTracker implements IMetricsTracker {
+    static final String SLOW_ACQUIRE_METRIC = "db.pool.slow.acquires";
+    static final String TIMEOUT_METRIC = "db.pool.acquire.timeouts";
+
+    private static final Logger logger = LogManager.getLogger(PoolSaturationTracker.class);
+
+    private final IMetricsTracker delegate;
+    private final String poolName;
+    private final PoolStats poolStats;
+    private final long thresholdNanos;
+    private final long warnIntervalNanos;
+    private final Counter slowAcquires;
+    private final Counter timeouts;
+    private final AtomicLong lastWarning;
+
+    PoolSaturationTracker(IMetricsTracker delegate, String poolName, PoolStats poolStats,
+                          ConnectionPoolProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        this.thresholdNanos = properties.acquireWarnThreshold().toNanos();
+        this.warnIntervalNanos = properties.warnInterval().toNanos();
+        this.slowAcquires = Counter.builder(SLOW_ACQUIRE_METRIC)
+                .description("Connection acquisitions slower than app.datasource.pool.acquire-warn-threshold")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder(TIMEOUT_METRIC)
+                .description("Connection requests that hit the pool connection-timeout")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        this.lastWarning = new AtomicLong(System.nanoTime() - warnIntervalNanos);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        if (elapsedAcquiredNanos > thresholdNanos) {
+            slowAcquires.increment();
+            warn("Slow connection acquire (" + Duration.ofNanos(elapsedAcquiredNanos).toMillis() + " ms)");
+        }
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        delegate.recordConnectionTimeout();
+        timeouts.increment();
+        warn("Connection timeout");
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void warn(String event) {
+        long now = System.nanoTime();
+        long last = lastWarning.get();
+        if (now - last < warnIntervalNanos || !lastWarning.compareAndSet(last, now)) {
+            return;
+        }
+        logger.warn("{} on pool {}: active={}, idle={}, pending={}, max={}", event, poolName,
+                poolStats.getActiveConnections(), poolStats.getIdleConnections(),
+                poolStats.getPendingThreads(), poolStats.getMaxConnections());
+    }
+}
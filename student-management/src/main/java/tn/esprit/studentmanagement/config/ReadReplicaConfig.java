@@ -0,0 +1,84 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Remplace la DataSource auto-configurée : primaire (spring.datasource.*) + réplique (app.datasource.replica.*),
+// choisies transaction par transaction par ReplicaRoutingDataSource.
+// Les lectures passent par les méthodes @Transactional(readOnly = true) des services et des repositories.
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    private static final Logger logger = LogManager.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReadReplicaProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.url())
+                .username(properties.username())
+                .password(properties.password())
+                .driverClassName(properties.driverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties.lagQuery(), properties.lagCheckInterval());
+        // NaN tant que la réplique n'a pas répondu
+        Gauge.builder("db.replica.lag", monitor, m -> {
+                    Duration lag = m.lag();
+                    return lag == null ? Double.NaN : lag.toMillis() / 1000.0;
+                })
+                .baseUnit("seconds")
+                .description("Replication lag of the read replica")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor, ResourceVersionTracker versionTracker,
+                                 ReadReplicaProperties properties) {
+        logger.info("Read replica routing enabled: replica={}, maxLag={}, stickyFor={}",
+                properties.url(), properties.maxLag(), properties.stickyFor());
+        // TRANSCRIPT dépend de toutes les ressources : date de la dernière écriture de cette instance
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor,
+                () -> versionTracker.lastModified(ResourceVersionTracker.Resource.TRANSCRIPT),
+                properties.maxLag(), properties.stickyFor());
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
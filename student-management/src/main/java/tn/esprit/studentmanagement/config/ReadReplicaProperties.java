@@ -0,0 +1,21 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Pool de la réplique : app.datasource.replica.hikari.* (comme spring.datasource.hikari.* pour le primaire).
+// lagQuery absente : la réplique est seulement pingée, son retard considéré nul.
+// stickyFor absent : max-lag, le retard au-delà duquel la réplique n'est plus utilisée de toute façon
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReadReplicaProperties(Boolean enabled, String url, String username, String password,
+                                    String driverClassName, Duration maxLag, Duration stickyFor,
+                                    String lagQuery, Duration lagCheckInterval) {
+
+    public ReadReplicaProperties {
+        enabled = enabled != null && enabled;
+        maxLag = maxLag == null ? Duration.ofSeconds(5) : maxLag;
+        stickyFor = stickyFor == null ? maxLag : stickyFor;
+        lagCheckInterval = lagCheckInterval == null ? Duration.ofSeconds(5) : lagCheckInterval;
+    }
+}
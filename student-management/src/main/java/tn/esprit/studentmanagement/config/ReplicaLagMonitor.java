@@ -0,0 +1,112 @@
+package tn.esprit.studentmanagement.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Retard de la réplique, mesuré en tâche de fond au plus toutes les checkInterval : jamais dans le fil
+// d'une requête, une réplique lente ou injoignable ne bloque donc personne. null tant qu'aucune mesure
+// n'a réussi (les lectures restent alors sur le primaire).
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReplicaLagMonitor.class);
+    private static final int PING_TIMEOUT_SECONDS = 2;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long checkIntervalNanos;
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long lastCheck;
+    private volatile boolean measured;
+    private volatile Duration lag;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration checkInterval) {
+        this.replica = replica;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.lastCheck = System.nanoTime() - checkIntervalNanos;
+        refreshIfStale();
+    }
+
+    // Dernière mesure ; relance une mesure en arrière-plan si elle date de plus de checkInterval
+    public Duration lag() {
+        refreshIfStale();
+        return lag;
+    }
+
+    void refresh() {
+        Duration previous = lag;
+        lag = measure();
+        lastCheck = System.nanoTime();
+        if (lag == null && (previous != null || !measured)) {
+            logger.warn("Replica unavailable, reads go to the primary");
+        } else if (lag != null && previous == null) {
+            logger.info("Replica available, lag={}", lag);
+        }
+        measured = true;
+    }
+
+    private void refreshIfStale() {
+        if (System.nanoTime() - lastCheck >= checkIntervalNanos && checking.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    checking.set(false);
+                }
+            });
+        }
+    }
+
+    private Duration measure() {
+        try (Connection connection = replica.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(PING_TIMEOUT_SECONDS) ? Duration.ZERO : null;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                // Aucune ligne (SHOW REPLICA STATUS sur un serveur qui ne réplique pas) ou NULL (réplication arrêtée)
+                Object seconds = rs.next() ? rs.getObject(lagColumn(rs.getMetaData())) : null;
+                return seconds instanceof Number n ? Duration.ofMillis(Math.round(n.doubleValue() * 1000)) : null;
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Détaillé seulement au premier échec d'une série
+            if (lag != null || !measured) {
+                logger.warn("Replica lag check failed: {}", e.getMessage());
+            }
+            logger.debug("Replica lag check failed", e);
+            return null;
+        }
+    }
+
+    // Requête à une colonne (en secondes), ou SHOW REPLICA STATUS / SHOW SLAVE STATUS sous MySQL
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String name = metaData.getColumnLabel(i);
+            if ("Seconds_Behind_Source".equalsIgnoreCase(name) || "Seconds_Behind_Master".equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package tn.esprit.studentmanagement.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Transactions readOnly -> réplique, tout le reste -> primaire. À placer derrière LazyConnectionDataSourceProxy :
+// la connexion physique n'est prise qu'au premier ordre SQL, quand le flag readOnly de la transaction est connu.
+// Une lecture reste sur le primaire quand :
+//  - le retard de la réplique est inconnu ou dépasse maxLag ;
+//  - une écriture de cette instance est plus récente que ce retard : caches et ETag sont déjà à jour de
+//    cette écriture, une lecture sur la réplique les remplirait avec l'état précédent ;
+//  - le client a écrit il y a moins de stickyFor (read-your-writes), d'après un attribut de la requête
+//    en cours ou le cookie posé à la réponse, qui suit le client sur les autres instances.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String STICKY_COOKIE = "rw-primary-until";
+    private static final String STICKY_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".primaryUntil";
+    // Seconds_Behind_Source est arrondi à la seconde
+    private static final long LAG_RESOLUTION_MILLIS = 1000;
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final LongSupplier lastLocalWrite;
+    private final Duration maxLag;
+    private final Duration stickyFor;
+    private final Object writeMarker = new Object();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    LongSupplier lastLocalWrite, Duration maxLag, Duration stickyFor) {
+        this.lagMonitor = lagMonitor;
+        this.lastLocalWrite = lastLocalWrite;
+        this.maxLag = maxLag;
+        this.stickyFor = stickyFor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWrite();
+            return Target.PRIMARY;
+        }
+        return replicaUsable() && !stickyToPrimary() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private boolean replicaUsable() {
+        Duration lag = lagMonitor.lag();
+        if (lag == null || lag.compareTo(maxLag) > 0) {
+            return false;
+        }
+        return System.currentTimeMillis() - lastLocalWrite.getAsLong() > lag.toMillis() + LAG_RESOLUTION_MILLIS;
+    }
+
+    // Une fois par transaction en écriture : le client devient collant au primaire si elle est validée
+    private void markWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarker, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+                if (status == STATUS_COMMITTED) {
+                    stick();
+                }
+            }
+        });
+    }
+
+    private void stick() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        long until = System.currentTimeMillis() + stickyFor.toMillis();
+        attributes.setAttribute(STICKY_ATTRIBUTE, until, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(STICKY_COOKIE, Long.toString(until));
+            cookie.setMaxAge((int) Math.max(1, stickyFor.toSeconds()));
+            cookie.setPath(attributes.getRequest().getContextPath().isEmpty() ? "/" : attributes.getRequest().getContextPath());
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+    }
+
+    private boolean stickyToPrimary() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (attributes.getAttribute(STICKY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long until && until > now) {
+            return true;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (STICKY_COOKIE.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // Borné à stickyFor : un cookie forgé ne peut pas attacher un client au primaire indéfiniment
+                    return until > now && until <= now + stickyFor.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package tn.esprit.studentmanagement.controllers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import tn.esprit.studentmanagement.config.ConcurrencyLimitExceededException;
+import tn.esprit.studentmanagement.services.BadRequestException;
+import tn.esprit.studentmanagement.services.EnrollmentRejectedException;
+
+import java.util.NoSuchElementException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    private static final Logger logger = LogManager.getLogger(ApiExceptionHandler.class);
+
+    // Seules les validations d'entrée (BadRequestException) renvoient leur message ; toute autre
+    // IllegalArgumentException reste une erreur serveur
+    @ExceptionHandler(BadRequestException.class)
+    public ProblemDetail handleBadRequest(BadRequestException e) {
+        logger.warn("Bad request: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ProblemDetail handleNotFound(NoSuchElementException e) {
+        logger.debug("Not found: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    // Version périmée : 412 si le client l'a fixée par If-Match, sinon 409 (écriture concurrente pendant le merge)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleStaleVersion(OptimisticLockingFailureException e, WebRequest request) {
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        logger.info("Stale version ({}): {}", status.value(), e.getMessage());
+        return ProblemDetail.forStatusAndDetail(status, "Resource was modified concurrently; reload it and retry");
+    }
+
+    // Déjà inscrit ou cours complet : motif renvoyé au client (reason)
+    @ExceptionHandler(EnrollmentRejectedException.class)
+    public ProblemDetail handleEnrollmentRejected(EnrollmentRejectedException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problem.setProperty("reason", e.getReason());
+        return problem;
+    }
+
+    // Pas de créneau libre pour travailler en base (ConcurrencyLimitFilter), pas de log : compteur app.concurrency.limit.rejected
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleConcurrencyLimit(ConcurrencyLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    // Contrainte d'unicité (code de cours, couple étudiant / cours) ou clé étrangère encore référencée
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleConflict(DataIntegrityViolationException e) {
+        logger.warn("Conflict: {}", e.getMostSpecificCause().getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "Request conflicts with existing data");
+    }
+}
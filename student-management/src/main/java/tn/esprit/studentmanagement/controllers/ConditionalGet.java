@@ -0,0 +1,18 @@
+package tn.esprit.studentmanagement.controllers;
+
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// GET servi en 304 tant que la vue n'a pas changé (voir ConditionalGetInterceptor).
+// item : l'ETag est posé par le contrôleur (version de l'entité + étiquette de la vue, cf. EntityTags)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    Resource value();
+
+    boolean item() default false;
+}
@@ -0,0 +1,41 @@
+package tn.esprit.studentmanagement.controllers;
+
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.services.ICourseService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/Course")
+@CrossOrigin(origins = "http://localhost:4200")
+@AllArgsConstructor
+public class CourseController {
+    ICourseService courseService;
+
+    @GetMapping("/getAllCourses")
+    public List<Course> getAllCourses() { return courseService.getAllCourses(); }
+
+    @GetMapping("/getCoursesPage")
+    public PageResponse<Course> getCoursesPage(@RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(required = false) Integer size) {
+        return courseService.getCoursesPage(page, size);
+    }
+
+    @GetMapping("/getCourse/{id}")
+    public Course getCourse(@PathVariable Long id) { return courseService.getCourseById(id); }
+
+    @GetMapping("/getCourseByCode/{code}")
+    public Course getCourseByCode(@PathVariable String code) { return courseService.getCourseByCode(code); }
+
+    @PostMapping("/createCourse")
+    public Course createCourse(@RequestBody Course course) { return courseService.saveCourse(course); }
+
+    @PutMapping("/updateCourse")
+    public Course updateCourse(@RequestBody Course course) { return courseService.saveCourse(course); }
+
+    @DeleteMapping("/deleteCourse/{id}")
+    public void deleteCourse(@PathVariable Long id) { courseService.deleteCourse(id); }
+}
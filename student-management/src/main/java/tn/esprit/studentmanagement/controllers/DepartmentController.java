@@ -1,15 +1,25 @@
 package tn.esprit.studentmanagement.controllers;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
 import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.services.DepartmentService;
 import tn.esprit.studentmanagement.services.IDepartmentService;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/Depatment")
@@ -19,34 +29,66 @@ public class DepartmentController {
     private static final Logger logger = LogManager.getLogger(DepartmentController.class);
 
     private IDepartmentService departmentService;
+    private ResourceVersionTracker versionTracker;
 
+    // Départements avec leur nombre d'étudiants (studentCount) : l'étiquette STUDENT couvre aussi DEPARTMENT
+    @ConditionalGet(Resource.STUDENT)
     @GetMapping("/getAllDepartment")
-    public List<Department> getAllDepartment() {
-        logger.info("GET /Depatment/getAllDepartment");
-        return departmentService.getAllDepartments();
+    public List<DepartmentSummary> getAllDepartment() {
+        logger.debug("GET /Depatment/getAllDepartment");
+        return departmentService.getAllDepartmentSummaries();
     }
 
+    @ConditionalGet(value = Resource.STUDENT, item = true)
     @GetMapping("/getDepartment/{id}")
-    public Department getDepartment(@PathVariable Long id) {
-        logger.info("GET /Depatment/getDepartment/{}", id);
-        return departmentService.getDepartmentById(id);
+    public ResponseEntity<DepartmentSummary> getDepartment(@PathVariable Long id) {
+        logger.debug("GET /Depatment/getDepartment/{}", id);
+        DepartmentSummary department = departmentService.getDepartmentSummary(id);
+        return ResponseEntity.ok().eTag(EntityTags.of(department.version(), versionTracker.tag(Resource.STUDENT))).body(department);
+    }
+
+    // Étudiants du département par pages : "next" à repasser en cursor, null sur la dernière page
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/getDepartment/{id}/students")
+    public CursorPage<Student> getDepartmentStudents(@PathVariable Long id,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        logger.debug("GET /Depatment/getDepartment/{}/students - cursor {} size {}", id, cursor, size);
+        return departmentService.getDepartmentStudents(id, cursor, size);
     }
 
     @PostMapping("/createDepartment")
     public Department createDepartment(@RequestBody Department department) {
-        logger.info("POST /Depatment/createDepartment - {}", department);
+        logger.debug("POST /Depatment/createDepartment");
         return departmentService.saveDepartment(department);
     }
 
     @PutMapping("/updateDepartment")
-    public Department updateDepartment(@RequestBody Department department) {
-        logger.info("PUT /Depatment/updateDepartment - {}", department);
-        return departmentService.saveDepartment(department);
+    public ResponseEntity<Department> updateDepartment(@RequestBody Department department,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PUT /Depatment/updateDepartment - id {} If-Match {}", department.getIdDepartment(), ifMatch);
+        Department saved = departmentService.updateDepartment(department, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(saved.getVersion(), versionTracker.tag(Resource.DEPARTMENT))).body(saved);
+    }
+
+    @PatchMapping("/patchDepartment/{id}")
+    public ResponseEntity<Void> patchDepartment(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PATCH /Depatment/patchDepartment/{} If-Match {}", id, ifMatch);
+        long version = departmentService.patchDepartment(id, changes, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(EntityTags.of(version, versionTracker.tag(Resource.DEPARTMENT))).build();
     }
 
     @DeleteMapping("/deleteDepartment/{id}")
     public void deleteDepartment(@PathVariable Long id) {
-        logger.info("DELETE /Depatment/deleteDepartment/{}", id);
+        logger.debug("DELETE /Depatment/deleteDepartment/{}", id);
         departmentService.deleteDepartment(id);
     }
+
+    // students : RESTRICT (défaut), DETACH, REASSIGN (vers reassignTo) ou CASCADE
+    @PostMapping("/deleteDepartments")
+    public BulkDeleteReport deleteDepartments(@RequestBody DepartmentBulkDelete request) {
+        logger.debug("POST /Depatment/deleteDepartments - {} ids, students {}", request.ids() == null ? 0 : request.ids().size(), request.students());
+        return departmentService.deleteDepartments(request);
+    }
 }
@@ -1,11 +1,26 @@
 package tn.esprit.studentmanagement.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.CompactEnrollmentList;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.GradePost;
 import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.services.GradeWriteBehind;
 import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/Enrollment")
@@ -13,18 +28,76 @@ import java.util.List;
 @AllArgsConstructor
 public class EnrollmentController {
     IEnrollment enrollmentService;
+    ResourceVersionTracker versionTracker;
+    GradeWriteBehind gradeWriteBehind;
+
+    @ConditionalGet(Resource.ENROLLMENT)
     @GetMapping("/getAllEnrollment")
     public List<Enrollment> getAllEnrollment() { return enrollmentService.getAllEnrollments(); }
 
+    // Étudiants, départements et cours émis une fois chacun, référencés par id
+    @ConditionalGet(Resource.ENROLLMENT)
+    @GetMapping("/getAllEnrollmentCompact")
+    public CompactEnrollmentList getAllEnrollmentCompact() { return enrollmentService.getAllEnrollmentsCompact(); }
+
+    // Export registrar en flux (format=csv|ndjson) : remplace getAllEnrollment pour les gros volumes
+    @ConditionalGet(Resource.ENROLLMENT)
+    @GetMapping("/exportEnrollments")
+    public void exportEnrollments(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("enrollments")).build().toString());
+        enrollmentService.exportEnrollments(exportFormat, response.getOutputStream());
+    }
+
+    @ConditionalGet(value = Resource.ENROLLMENT, item = true)
     @GetMapping("/getEnrollment/{id}")
-    public Enrollment getEnrollment(@PathVariable Long id) { return enrollmentService.getEnrollmentById(id); }
+    public ResponseEntity<Enrollment> getEnrollment(@PathVariable Long id) {
+        // Note en attente superposée hors du cache
+        Enrollment enrollment = gradeWriteBehind.withPending(enrollmentService.getEnrollmentById(id));
+        return enrollment == null ? ResponseEntity.ok().build()
+                : ResponseEntity.ok().eTag(EntityTags.of(enrollment.getVersion(), versionTracker.tag(Resource.ENROLLMENT))).body(enrollment);
+    }
 
     @PostMapping("/createEnrollment")
     public Enrollment createEnrollment(@RequestBody Enrollment enrollment) { return enrollmentService.saveEnrollment(enrollment); }
 
+    // Corps lu en flux : tableau JSON ou NDJSON (un document par ligne)
+    @PostMapping(value = "/importEnrollments",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportReport importEnrollments(InputStream body) throws IOException {
+        return enrollmentService.importEnrollments(body);
+    }
+
     @PutMapping("/updateEnrollment")
-    public Enrollment updateEnrollment(@RequestBody Enrollment enrollment) {
-        return enrollmentService.saveEnrollment(enrollment);
+    public ResponseEntity<Enrollment> updateEnrollment(@RequestBody Enrollment enrollment,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Enrollment saved = enrollmentService.updateEnrollment(enrollment, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(saved.getVersion(), versionTracker.tag(Resource.ENROLLMENT))).body(saved);
+    }
+
+    // Champs modifiables : enrollmentDate, grade, status
+    @PatchMapping("/patchEnrollment/{id}")
+    public ResponseEntity<Void> patchEnrollment(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = enrollmentService.patchEnrollment(id, changes, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(EntityTags.of(version, versionTracker.tag(Resource.ENROLLMENT))).build();
+    }
+
+    // Notes postées en écriture différée : 202 une fois journalisées, visibles aussitôt dans getEnrollment /
+    // getAllEnrollment, écrites en base par lots (app.grades.write-behind.*)
+    @PostMapping("/postGrades")
+    public ResponseEntity<Void> postGrades(@RequestBody List<GradePost> grades) throws IOException {
+        enrollmentService.postGrades(grades);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Corps : {"grade": 15.5} et/ou {"status": "COMPLETED"}
+    @PostMapping("/postGrade/{id}")
+    public ResponseEntity<Void> postGrade(@PathVariable Long id, @RequestBody GradePost grade) throws IOException {
+        enrollmentService.postGrades(List.of(new GradePost(id, grade.grade(), grade.status())));
+        return ResponseEntity.accepted().build();
     }
 
     @DeleteMapping("/deleteEnrollment/{id}")
@@ -0,0 +1,39 @@
+package tn.esprit.studentmanagement.controllers;
+
+import tn.esprit.studentmanagement.services.BadRequestException;
+
+// ETag d'une entité : W/"<version>-<étiquette de la vue>" (voir ResourceVersionTracker).
+// Faible : Tomcat ne compresse pas une réponse qui porte un ETag fort (server.compression).
+// If-Match n'en compare que la version : accepte W/"3-…", "3-…", "3", W/"3" ou * (sans condition)
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(long version, String viewTag) {
+        return "W/\"" + version + "-" + viewTag + "\"";
+    }
+
+    // null : en-tête absent ou *, la mise à jour est alors inconditionnelle
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        int dash = tag.indexOf('-');
+        if (dash >= 0) {
+            tag = tag.substring(0, dash);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Malformed If-Match header: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package tn.esprit.studentmanagement.controllers;
+
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.GradeStatistics;
+import tn.esprit.studentmanagement.services.IGradeStatisticsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/Statistics")
+@CrossOrigin(origins = "http://localhost:4200")
+@AllArgsConstructor
+public class StatisticsController {
+    IGradeStatisticsService gradeStatisticsService;
+
+    @GetMapping("/getCourseStatistics/{id}")
+    public GradeStatistics getCourseStatistics(@PathVariable Long id) { return gradeStatisticsService.getCourseStatistics(id); }
+
+    @GetMapping("/getDepartmentStatistics/{id}")
+    public GradeStatistics getDepartmentStatistics(@PathVariable Long id) { return gradeStatisticsService.getDepartmentStatistics(id); }
+
+    @GetMapping("/getAllCourseStatistics")
+    public List<GradeStatistics> getAllCourseStatistics() { return gradeStatisticsService.getAllCourseStatistics(); }
+
+    @GetMapping("/getAllDepartmentStatistics")
+    public List<GradeStatistics> getAllDepartmentStatistics() { return gradeStatisticsService.getAllDepartmentStatistics(); }
+
+    // Recalcul complet (une lecture de la table enrollment), renvoie le nombre d'inscriptions lues
+    @PostMapping("/rebuildStatistics")
+    public long rebuildStatistics() { return gradeStatisticsService.rebuild(); }
+}
@@ -1,12 +1,30 @@
 package tn.esprit.studentmanagement.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CompactStudentList;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.dto.StudentBulkDelete;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.services.IStudentService;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/students")
@@ -14,21 +32,89 @@ import java.util.List;
 @AllArgsConstructor
 public class StudentController {
 IStudentService studentService;
+    ResourceVersionTracker versionTracker;
 
+    @ConditionalGet(Resource.STUDENT)
     @GetMapping("/getAllStudents")
     public List<Student> getAllStudents() { return studentService.getAllStudents(); }
 
+    // Départements émis une fois (students[].idDepartment -> departments)
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/getAllStudentsCompact")
+    public CompactStudentList getAllStudentsCompact() { return studentService.getAllStudentsCompact(); }
+
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/getStudentsPage")
+    public CursorPage<Student> getStudentsPage(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return studentService.getStudentsPage(cursor, size);
+    }
+
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/searchStudents")
+    public PageResponse<Student> searchStudents(StudentSearchCriteria criteria,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String sort) {
+        return studentService.searchStudents(criteria, page, size, sort);
+    }
+
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/getStudentsSummary")
+    public List<StudentSummary> getStudentsSummary() { return studentService.getStudentsSummary(); }
+
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/getStudentsWithDepartment")
+    public List<StudentWithDepartment> getStudentsWithDepartment() { return studentService.getStudentsWithDepartment(); }
+
+    @ConditionalGet(Resource.TRANSCRIPT)
+    @GetMapping("/getStudentTranscript/{id}")
+    public StudentTranscript getStudentTranscript(@PathVariable Long id) { return studentService.getStudentTranscript(id); }
+
+    @ConditionalGet(Resource.TRANSCRIPT)
+    @GetMapping("/getStudentsTranscript")
+    public List<StudentTranscript> getStudentsTranscript() { return studentService.getStudentsTranscript(); }
+
+    // Export complet en flux (format=csv|ndjson), écrit directement dans la réponse
+    @ConditionalGet(Resource.STUDENT)
+    @GetMapping("/exportStudents")
+    public void exportStudents(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("students")).build().toString());
+        studentService.exportStudents(exportFormat, response.getOutputStream());
+    }
+
+    @ConditionalGet(value = Resource.STUDENT, item = true)
     @GetMapping("/getStudent/{id}")
-    public Student getStudent(@PathVariable Long id) { return studentService.getStudentById(id); }
+    public ResponseEntity<Student> getStudent(@PathVariable Long id) {
+        Student student = studentService.getStudentById(id);
+        return student == null ? ResponseEntity.ok().build()
+                : ResponseEntity.ok().eTag(EntityTags.of(student.getVersion(), versionTracker.tag(Resource.STUDENT))).body(student);
+    }
 
     @PostMapping("/createStudent")
     public Student createStudent(@RequestBody Student student) { return studentService.saveStudent(student); }
 
     @PutMapping("/updateStudent")
-    public Student updateStudent(@RequestBody Student student) {
-        return studentService.saveStudent(student);
+    public ResponseEntity<Student> updateStudent(@RequestBody Student student,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Student saved = studentService.updateStudent(student, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(saved.getVersion(), versionTracker.tag(Resource.STUDENT))).body(saved);
+    }
+
+    @PatchMapping("/patchStudent/{id}")
+    public ResponseEntity<Void> patchStudent(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = studentService.patchStudent(id, changes, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(EntityTags.of(version, versionTracker.tag(Resource.STUDENT))).build();
     }
 
     @DeleteMapping("/deleteStudent/{id}")
     public void deleteStudent(@PathVariable Long id) { studentService.deleteStudent(id); }
+
+    // Suppression en masse par ids ou par filtre, inscriptions comprises
+    @PostMapping("/deleteStudents")
+    public BulkDeleteReport deleteStudents(@RequestBody StudentBulkDelete request) { return studentService.deleteStudents(request); }
 }
@@ -0,0 +1,6 @@
+package tn.esprit.studentmanagement.dto;
+
+// Lignes touchées par une suppression en masse, dépendants compris.
+// studentsMoved : étudiants réaffectés à un autre département ou détachés (département null)
+public record BulkDeleteReport(int departmentsDeleted, int studentsDeleted, int studentsMoved, int enrollmentsDeleted) {
+}
@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.util.List;
+
+// Bilan d'un import en masse : les échecs sont rapportés par position dans le flux (0-based)
+public record BulkImportReport(long received, long imported, long failed,
+                               List<RecordFailure> failures, boolean failuresTruncated) {
+
+    public record RecordFailure(long index, String reason) {
+    }
+}
@@ -0,0 +1,35 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Inscriptions avec étudiants, départements et cours émis une seule fois chacun, indexés par id
+public record CompactEnrollmentList(List<EnrollmentRow> enrollments, Map<Long, StudentRow> students,
+                                    Map<Long, Department> departments, Map<Long, Course> courses) {
+
+    public static CompactEnrollmentList from(List<Enrollment> enrollments) {
+        Map<Long, StudentRow> students = new LinkedHashMap<>();
+        Map<Long, Department> departments = new LinkedHashMap<>();
+        Map<Long, Course> courses = new LinkedHashMap<>();
+        for (Enrollment enrollment : enrollments) {
+            Student student = enrollment.getStudent();
+            if (student != null && !students.containsKey(student.getIdStudent())) {
+                students.put(student.getIdStudent(), StudentRow.from(student));
+                if (student.getDepartment() != null) {
+                    departments.putIfAbsent(student.getDepartment().getIdDepartment(), student.getDepartment());
+                }
+            }
+            if (enrollment.getCourse() != null) {
+                courses.putIfAbsent(enrollment.getCourse().getIdCourse(), enrollment.getCourse());
+            }
+        }
+        return new CompactEnrollmentList(enrollments.stream().map(EnrollmentRow::from).toList(),
+                students, departments, courses);
+    }
+}
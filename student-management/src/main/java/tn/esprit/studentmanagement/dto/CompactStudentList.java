@@ -0,0 +1,23 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Liste d'étudiants où chaque département n'est émis qu'une fois, indexé par id
+public record CompactStudentList(List<StudentRow> students, Map<Long, Department> departments) {
+
+    public static CompactStudentList from(List<Student> students) {
+        Map<Long, Department> departments = new LinkedHashMap<>();
+        for (Student student : students) {
+            Department department = student.getDepartment();
+            if (department != null) {
+                departments.putIfAbsent(department.getIdDepartment(), department);
+            }
+        }
+        return new CompactStudentList(students.stream().map(StudentRow::from).toList(), departments);
+    }
+}
@@ -0,0 +1,32 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.services.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// Page de résultats paginée par curseur (keyset) : "next" est null sur la dernière page
+public record CursorPage<T>(List<T> content, String next, int size) {
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        long id;
+        try {
+            id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor, e);
+        }
+        if (id < 0) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,22 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.util.List;
+
+// students : sort des étudiants des départements supprimés (RESTRICT par défaut)
+public record DepartmentBulkDelete(List<Long> ids, StudentPolicy students, Long reassignTo) {
+
+    public enum StudentPolicy {
+        // Refus (409) si un des départements a encore des étudiants
+        RESTRICT,
+        // Étudiants conservés, sans département
+        DETACH,
+        // Étudiants déplacés vers le département reassignTo
+        REASSIGN,
+        // Étudiants supprimés, avec leurs inscriptions
+        CASCADE
+    }
+
+    public DepartmentBulkDelete {
+        students = students == null ? StudentPolicy.RESTRICT : students;
+    }
+}
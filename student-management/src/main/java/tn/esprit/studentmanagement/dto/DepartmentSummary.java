@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+// Vue par défaut d'un département : ses colonnes et le nombre de ses étudiants, jamais la liste
+// (pages d'étudiants : /Depatment/getDepartment/{id}/students)
+public record DepartmentSummary(Long idDepartment, String name, String location, String phone, String head,
+                                long version, long studentCount) {
+}
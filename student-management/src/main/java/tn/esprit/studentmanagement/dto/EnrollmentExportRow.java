@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+
+// Ligne d'export d'une inscription : étudiant et cours aplatis, lus dans la même jointure
+public record EnrollmentExportRow(Long idEnrollment, LocalDate enrollmentDate, Double grade, Status status,
+                                  Long idStudent, String firstName, String lastName,
+                                  Long idCourse, String courseCode, String courseName) {
+}
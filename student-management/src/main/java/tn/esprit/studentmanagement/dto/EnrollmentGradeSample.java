@@ -0,0 +1,18 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+// GradeSample d'une inscription désignée par son id (écriture différée des notes)
+public record EnrollmentGradeSample(Long idEnrollment, Long idStudent, Long idCourse, Long idDepartment,
+                                    Double grade, Status status) {
+
+    public GradeSample sample() {
+        return new GradeSample(idStudent, idCourse, idDepartment, grade, status);
+    }
+
+    public GradeSample with(GradePost post) {
+        return new GradeSample(idStudent, idCourse, idDepartment,
+                post.grade() != null ? post.grade() : grade,
+                post.status() != null ? post.status() : status);
+    }
+}
@@ -0,0 +1,17 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+
+public record EnrollmentRow(Long idEnrollment, LocalDate enrollmentDate, Double grade, Status status, long version,
+                            Long idStudent, Long idCourse) {
+
+    public static EnrollmentRow from(Enrollment enrollment) {
+        return new EnrollmentRow(enrollment.getIdEnrollment(), enrollment.getEnrollmentDate(), enrollment.getGrade(),
+                enrollment.getStatus(), enrollment.getVersion(),
+                enrollment.getStudent() == null ? null : enrollment.getStudent().getIdStudent(),
+                enrollment.getCourse() == null ? null : enrollment.getCourse().getIdCourse());
+    }
+}
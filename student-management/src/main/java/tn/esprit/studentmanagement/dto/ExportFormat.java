@@ -0,0 +1,35 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.services.BadRequestException;
+
+import java.util.Locale;
+
+// Formats d'export ligne à ligne (un enregistrement par ligne, écrit au fil de la lecture)
+public enum ExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "." + extension;
+    }
+
+    public static ExportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format + " (csv or ndjson)");
+        }
+    }
+}
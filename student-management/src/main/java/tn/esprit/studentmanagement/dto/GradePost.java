@@ -0,0 +1,14 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+// Note postée (écriture différée) : grade ou status null = valeur inchangée
+public record GradePost(Long idEnrollment, Double grade, Status status) {
+
+    // Deux postes successifs sur la même inscription : le plus récent l'emporte, champ par champ
+    public GradePost mergedWith(GradePost newer) {
+        return new GradePost(idEnrollment,
+                newer.grade() != null ? newer.grade() : grade,
+                newer.status() != null ? newer.status() : status);
+    }
+}
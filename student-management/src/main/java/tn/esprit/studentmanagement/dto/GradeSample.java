@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+// Ce qu'une inscription apporte aux statistiques et aux relevés : étudiant, groupes (cours, département) et valeurs
+public record GradeSample(Long idStudent, Long idCourse, Long idDepartment, Double grade, Status status) {
+}
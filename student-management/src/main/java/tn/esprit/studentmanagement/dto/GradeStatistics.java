@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.util.List;
+import java.util.Map;
+
+// Statistiques de notes d'un cours ou d'un département (average/min/max null si aucune note)
+public record GradeStatistics(String scope, Long id, long enrollments, long graded,
+                              Double average, Double min, Double max,
+                              Map<Status, Long> statusCounts, List<Bucket> histogram) {
+
+    // Nombre de notes dans [from, to)
+    public record Bucket(double from, double to, long count) {
+    }
+}
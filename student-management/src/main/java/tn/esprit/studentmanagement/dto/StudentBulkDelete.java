@@ -0,0 +1,8 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.util.List;
+
+// Soit une liste d'ids, soit un filtre (mêmes critères que searchStudents, au moins un renseigné).
+// Les inscriptions des étudiants supprimés sont supprimées avec eux.
+public record StudentBulkDelete(List<Long> ids, StudentSearchCriteria filter) {
+}
@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.time.LocalDate;
+
+// Étudiant avec son département réduit à l'id (voir CompactStudentList / CompactEnrollmentList)
+public record StudentRow(Long idStudent, String firstName, String lastName, String email, String phone,
+                         LocalDate dateOfBirth, String address, long version, Long idDepartment) {
+
+    public static StudentRow from(Student student) {
+        return new StudentRow(student.getIdStudent(), student.getFirstName(), student.getLastName(),
+                student.getEmail(), student.getPhone(), student.getDateOfBirth(), student.getAddress(),
+                student.getVersion(), student.getDepartment() == null ? null : student.getDepartment().getIdDepartment());
+    }
+}
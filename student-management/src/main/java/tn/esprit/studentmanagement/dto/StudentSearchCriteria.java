@@ -0,0 +1,13 @@
+package tn.esprit.studentmanagement.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Filtres combinables de la recherche d'étudiants : un filtre null est ignoré
+public record StudentSearchCriteria(String name,
+                                    String email,
+                                    Long departmentId,
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornAfter,
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornBefore) {
+}
@@ -0,0 +1,5 @@
+package tn.esprit.studentmanagement.dto;
+
+// Vue "summary" : colonnes propres à l'étudiant, sans aucune association
+public record StudentSummary(Long idStudent, String firstName, String lastName, String email) {
+}
@@ -0,0 +1,35 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Vue "transcript" : étudiant, département et inscriptions avec leur cours.
+// gpa : moyenne des notes pondérée par les crédits (null si aucune note comptée), sur gpaCredits crédits.
+public record StudentTranscript(Long idStudent, String firstName, String lastName, String email,
+                                String departmentName, List<TranscriptEntry> enrollments,
+                                Double gpa, int gpaCredits) {
+
+    // Abandons et retraits ne comptent pas dans la moyenne, même s'ils portent une note
+    private static final Set<Status> EXCLUDED_FROM_GPA = EnumSet.of(Status.DROPPED, Status.WITHDRAWN);
+
+    public static StudentTranscript from(Student student) {
+        List<TranscriptEntry> entries = student.getEnrollments() == null ? List.of()
+                : student.getEnrollments().stream().map(TranscriptEntry::from).toList();
+        double weighted = 0;
+        int credits = 0;
+        for (TranscriptEntry entry : entries) {
+            if (entry.grade() != null && entry.credit() > 0 && !EXCLUDED_FROM_GPA.contains(entry.status())) {
+                weighted += entry.grade() * entry.credit();
+                credits += entry.credit();
+            }
+        }
+        return new StudentTranscript(student.getIdStudent(), student.getFirstName(), student.getLastName(),
+                student.getEmail(),
+                student.getDepartment() == null ? null : student.getDepartment().getName(),
+                entries, credits == 0 ? null : weighted / credits, credits);
+    }
+}
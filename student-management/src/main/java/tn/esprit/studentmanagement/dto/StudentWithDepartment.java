@@ -0,0 +1,9 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.time.LocalDate;
+
+// Vue "with-department" : étudiant + nom du département, chargés en une seule jointure
+public record StudentWithDepartment(Long idStudent, String firstName, String lastName, String email,
+                                    String phone, LocalDate dateOfBirth,
+                                    Long idDepartment, String departmentName) {
+}
@@ -0,0 +1,20 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+
+public record TranscriptEntry(Long idEnrollment, Long idCourse, String courseCode, String courseName,
+                              int credit, LocalDate enrollmentDate, Status status, Double grade) {
+
+    public static TranscriptEntry from(Enrollment enrollment) {
+        var course = enrollment.getCourse();
+        return new TranscriptEntry(enrollment.getIdEnrollment(),
+                course == null ? null : course.getIdCourse(),
+                course == null ? null : course.getCode(),
+                course == null ? null : course.getName(),
+                course == null ? 0 : course.getCredit(),
+                enrollment.getEnrollmentDate(), enrollment.getStatus(), enrollment.getGrade());
+    }
+}
@@ -1,7 +1,10 @@
 package tn.esprit.studentmanagement.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import tn.esprit.studentmanagement.services.ResourceChangeListener;
 
 import java.util.List;
 
@@ -11,15 +14,27 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
+@EntityListeners(ResourceChangeListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_course_code", columnNames = "code"))
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_seq")
+    @SequenceGenerator(name = "course_seq", sequenceName = "course_seq", allocationSize = 50)
     private Long idCourse;
     private String name;
     private String code;           // exemple : CS101
     private int credit;            // nombre de crédits
     private String description;
+    private Integer capacity;      // places (null : illimité), voir EnrollmentAdmission
+    // Places prises, tenu en base par EnrollmentAdmission (UPDATE conditionnel), jamais écrit depuis l'entité ;
+    // hors JSON : la copie du catalogue n'en a qu'une valeur périmée
+    @JsonIgnore
+    @Column(insertable = false, updatable = false, nullable = false)
+    @ColumnDefault("0")
+    private int seatsTaken;
 
+    @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "course")
     private List<Enrollment> enrollments;
 
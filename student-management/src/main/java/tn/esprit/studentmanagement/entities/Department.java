@@ -1,7 +1,11 @@
 package tn.esprit.studentmanagement.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import tn.esprit.studentmanagement.services.ResourceChangeListener;
 
 import java.util.List;
 
@@ -11,15 +15,24 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
+@DynamicUpdate
+@EntityListeners(ResourceChangeListener.class)
 public class Department {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "department_seq")
+    @SequenceGenerator(name = "department_seq", sequenceName = "department_seq", allocationSize = 50)
     private Long idDepartment;
     private String name;
     private String location;
     private String phone;
     private String head; // chef de département
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "department")
     private List<Student> students;
 }
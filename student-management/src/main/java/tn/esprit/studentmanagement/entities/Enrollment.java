@@ -1,7 +1,10 @@
 package tn.esprit.studentmanagement.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import tn.esprit.studentmanagement.services.ResourceChangeListener;
 
 import java.time.LocalDate;
 
@@ -11,15 +14,33 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
+@DynamicUpdate
+@EntityListeners(ResourceChangeListener.class)
+// Une seule inscription par étudiant et par cours (bases existantes : db/enrollment-unique-migration.sql)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_enrollment_student_course",
+        columnNames = {"student_id_student", "course_id_course"}))
+@NamedEntityGraph(name = Enrollment.GRAPH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "student", subgraph = "student"),
+                @NamedAttributeNode("course")
+        },
+        subgraphs = @NamedSubgraph(name = "student", attributeNodes = @NamedAttributeNode("department")))
 public class Enrollment {
+    public static final String GRAPH_DETAILS = "Enrollment.details";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_seq")
+    @SequenceGenerator(name = "enrollment_seq", sequenceName = "enrollment_seq", allocationSize = 50)
     private Long idEnrollment;
     private LocalDate enrollmentDate;
     private Double grade;
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
     @ManyToOne
     private Student student;
 
@@ -1,8 +1,11 @@
 package tn.esprit.studentmanagement.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.hibernate.annotations.DynamicUpdate;
+import tn.esprit.studentmanagement.services.ResourceChangeListener;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -13,9 +16,29 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
+@DynamicUpdate
+@EntityListeners(ResourceChangeListener.class)
+@Table(indexes = {
+        @Index(name = "idx_student_last_name", columnList = "last_name"),
+        @Index(name = "idx_student_first_name", columnList = "first_name"),
+        @Index(name = "idx_student_email", columnList = "email"),
+        @Index(name = "idx_student_department", columnList = "department_id_department, id_student"),
+        @Index(name = "idx_student_date_of_birth", columnList = "date_of_birth")
+})
+@NamedEntityGraph(name = Student.GRAPH_WITH_DEPARTMENT, attributeNodes = @NamedAttributeNode("department"))
+@NamedEntityGraph(name = Student.GRAPH_TRANSCRIPT,
+        attributeNodes = {
+                @NamedAttributeNode("department"),
+                @NamedAttributeNode(value = "enrollments", subgraph = "enrollments")
+        },
+        subgraphs = @NamedSubgraph(name = "enrollments", attributeNodes = @NamedAttributeNode("course")))
 public class Student {
+    public static final String GRAPH_WITH_DEPARTMENT = "Student.withDepartment";
+    public static final String GRAPH_TRANSCRIPT = "Student.transcript";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     private Long idStudent;
     private String firstName;
     private String lastName;
@@ -24,9 +47,17 @@ public class Student {
     private LocalDate dateOfBirth;
     private String address;
 
+    // Verrouillage optimiste : incrémenté à chaque UPDATE, exposé en ETag (jamais lu depuis le corps des requêtes)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
     @ManyToOne
     private Department department;
 
+    // Collection inverse : jamais sérialisée ni parcourue par toString (chargement paresseux)
+    @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "student")
     private List<Enrollment> enrollments;
 }
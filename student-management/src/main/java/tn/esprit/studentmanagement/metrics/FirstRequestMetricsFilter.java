@@ -0,0 +1,60 @@
+package tn.esprit.studentmanagement.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+// Temps jusqu'à la première réponse servie, depuis le démarrage de la JVM : application.first.request.time.
+// Contrairement à application.ready.time, inclut le démarrage de la JVM (ce que l'archive AppCDS réduit)
+// et l'initialisation faite par la première requête (ce que l'initialisation paresseuse peut ajouter).
+public class FirstRequestMetricsFilter extends OncePerRequestFilter {
+    static final String METRIC_NAME = "application.first.request.time";
+
+    private static final Logger logger = LogManager.getLogger(FirstRequestMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier uptimeMillis;
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    public FirstRequestMetricsFilter(MeterRegistry meterRegistry) {
+        this(meterRegistry, () -> ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    FirstRequestMetricsFilter(MeterRegistry meterRegistry, LongSupplier uptimeMillis) {
+        this.meterRegistry = meterRegistry;
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!recorded.get() && recorded.compareAndSet(false, true)) {
+                record(request, response);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response) {
+        long elapsed = uptimeMillis.getAsLong();
+        TimeGauge.builder(METRIC_NAME, () -> elapsed, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first request was served")
+                .register(meterRegistry);
+        logger.info("First request served {} ms after JVM start: {} {} -> {}", elapsed, request.getMethod(),
+                request.getRequestURI(), response.getStatus());
+    }
+}
@@ -0,0 +1,29 @@
+package tn.esprit.studentmanagement.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseSizeMetricsFilter> responseSizeMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ResponseSizeMetricsFilter> registration =
+                new FilterRegistrationBean<>(new ResponseSizeMetricsFilter(meterRegistry));
+        // Au plus près du handler : compte le corps produit par le contrôleur, avant compression
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestMetricsFilter> firstRequestMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<FirstRequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new FirstRequestMetricsFilter(meterRegistry));
+        // En tête de chaîne : la mesure couvre tous les filtres, y compris les refus en 503
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
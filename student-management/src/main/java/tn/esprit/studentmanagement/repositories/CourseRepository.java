@@ -1,8 +1,37 @@
 package tn.esprit.studentmanagement.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.esprit.studentmanagement.entities.Course;
 
+import java.util.Collection;
+import java.util.Optional;
+
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {}
+public interface CourseRepository extends JpaRepository<Course, Long> {
+
+    // Places prises par un UPDATE conditionnel (verrou sur la ligne du cours) : 0 ligne si la capacité serait dépassée
+    @Modifying
+    @Query("update Course c set c.seatsTaken = c.seatsTaken + :count "
+            + "where c.idCourse = :id and (c.capacity is null or c.seatsTaken + :count <= c.capacity)")
+    int takeSeats(@Param("id") Long idCourse, @Param("count") int count);
+
+    @Modifying
+    @Query("update Course c set c.seatsTaken = c.seatsTaken - 1 where c.idCourse = :id and c.seatsTaken > 0")
+    int releaseSeat(@Param("id") Long idCourse);
+
+    // Lecture sans verrou : capacité et places prises à jour, quelle que soit l'instance qui les a écrites
+    @Query("select case when c.capacity is null or c.seatsTaken < c.capacity then true else false end "
+            + "from Course c where c.idCourse = :id")
+    Optional<Boolean> hasFreeSeat(@Param("id") Long idCourse);
+
+    // Recompté depuis les inscriptions après une écriture en masse (abandons et retraits ne comptent pas)
+    @Modifying
+    @Query("update Course c set c.seatsTaken = (select count(e) from Enrollment e where e.course = c and (e.status is null "
+            + "or e.status not in (tn.esprit.studentmanagement.entities.Status.DROPPED, tn.esprit.studentmanagement.entities.Status.WITHDRAWN))) "
+            + "where c.idCourse in :ids")
+    int recountSeats(@Param("ids") Collection<Long> idCourses);
+}
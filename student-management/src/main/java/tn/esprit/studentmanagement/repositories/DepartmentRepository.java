@@ -1,7 +1,35 @@
 package tn.esprit.studentmanagement.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
 import tn.esprit.studentmanagement.entities.Department;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface DepartmentRepository extends JpaRepository<Department, Long> {}
+public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    @Query("select d.version from Department d where d.idDepartment = :id")
+    Optional<Long> findVersionById(@Param("id") Long idDepartment);
+
+    // Nombre d'étudiants compté sur l'index idx_student_department, sans charger d.students
+    @Query("select new tn.esprit.studentmanagement.dto.DepartmentSummary(d.idDepartment, d.name, d.location, d.phone, "
+            + "d.head, d.version, (select count(s) from Student s where s.department = d)) "
+            + "from Department d where d.idDepartment = :id")
+    Optional<DepartmentSummary> findSummaryById(@Param("id") Long idDepartment);
+
+    @Query("select new tn.esprit.studentmanagement.dto.DepartmentSummary(d.idDepartment, d.name, d.location, d.phone, "
+            + "d.head, d.version, (select count(s) from Student s where s.department = d)) "
+            + "from Department d order by d.idDepartment")
+    List<DepartmentSummary> findAllSummaries();
+
+    @Modifying
+    @Query("delete from Department d where d.idDepartment in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> idDepartments);
+}
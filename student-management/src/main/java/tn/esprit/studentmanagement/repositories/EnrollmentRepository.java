@@ -1,9 +1,90 @@
 package tn.esprit.studentmanagement.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tn.esprit.studentmanagement.dto.EnrollmentExportRow;
+import tn.esprit.studentmanagement.dto.EnrollmentGradeSample;
+import tn.esprit.studentmanagement.dto.GradeSample;
 import tn.esprit.studentmanagement.entities.Enrollment;
 import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    // Étudiant, département et cours chargés en une seule jointure (plus de N+1 à la sérialisation)
+    @Override
+    @EntityGraph(Enrollment.GRAPH_DETAILS)
+    List<Enrollment> findAll();
+
+    // Contribution d'une inscription aux statistiques de notes (département résolu via l'étudiant)
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, c.idCourse, d.idDepartment, e.grade, e.status) "
+            + "from Enrollment e left join e.course c left join e.student s left join s.department d "
+            + "where e.idEnrollment = :id")
+    Optional<GradeSample> findGradeSample(@Param("id") Long idEnrollment);
+
+    // Inscriptions d'un étudiant, pour déplacer leurs notes quand il change de département
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, c.idCourse, d.idDepartment, e.grade, e.status) "
+            + "from Enrollment e left join e.course c join e.student s left join s.department d "
+            + "where s.idStudent = :id")
+    List<GradeSample> findGradeSamplesByStudent(@Param("id") Long idStudent);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new tn.esprit.studentmanagement.dto.EnrollmentExportRow(e.idEnrollment, e.enrollmentDate, e.grade, e.status, "
+            + "s.idStudent, s.firstName, s.lastName, c.idCourse, c.code, c.name) "
+            + "from Enrollment e left join e.student s left join e.course c order by e.idEnrollment")
+    Stream<EnrollmentExportRow> streamAllForExport();
+
+    // Inscrits d'un cours, pour l'index d'admission (une ligne par place prise, étudiant null compris) :
+    // abandons et retraits ne comptent pas (voir EnrollmentAdmission.holdsSeat)
+    @Query("select e.student.idStudent from Enrollment e where e.course.idCourse = :id and (e.status is null "
+            + "or e.status not in (tn.esprit.studentmanagement.entities.Status.DROPPED, tn.esprit.studentmanagement.entities.Status.WITHDRAWN))")
+    List<Long> findStudentIdsByCourse(@Param("id") Long idCourse);
+
+    @Query("select e.version from Enrollment e where e.idEnrollment = :id")
+    Optional<Long> findVersionById(@Param("id") Long idEnrollment);
+
+    @Query("select e.idEnrollment from Enrollment e where e.idEnrollment in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> idEnrollments);
+
+    // État avant écriture des notes en attente (GradeWriteBehind)
+    @Query("select new tn.esprit.studentmanagement.dto.EnrollmentGradeSample(e.idEnrollment, s.idStudent, c.idCourse, "
+            + "d.idDepartment, e.grade, e.status) "
+            + "from Enrollment e left join e.course c left join e.student s left join s.department d "
+            + "where e.idEnrollment in :ids")
+    List<EnrollmentGradeSample> findGradeSamplesByIds(@Param("ids") Collection<Long> idEnrollments);
+
+    // Parcours complet pour la reconstruction des statistiques (à consommer dans une transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, c.idCourse, d.idDepartment, e.grade, e.status) "
+            + "from Enrollment e left join e.course c left join e.student s left join s.department d")
+    Stream<GradeSample> streamAllGradeSamples();
+
+    // Notes retirées des statistiques quand les étudiants sont supprimés en masse.
+    // Clés étrangères lues directement : une seule jointure (l'étudiant, pour son département)
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, e.course.idCourse, s.department.idDepartment, e.grade, e.status) "
+            + "from Enrollment e join e.student s "
+            + "where s.idStudent in :ids")
+    List<GradeSample> findGradeSamplesByStudentIds(@Param("ids") Collection<Long> idStudents);
+
+    // Notes des étudiants d'un département, lues avant qu'ils en soient détachés ou réaffectés en masse
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, e.course.idCourse, s.department.idDepartment, e.grade, e.status) "
+            + "from Enrollment e join e.student s "
+            + "where s.department.idDepartment in :ids")
+    List<GradeSample> findGradeSamplesByDepartmentIds(@Param("ids") Collection<Long> idDepartments);
+
+    @Modifying
+    @Query("delete from Enrollment e where e.student.idStudent in :ids")
+    int deleteByStudentIds(@Param("ids") Collection<Long> idStudents);
 }
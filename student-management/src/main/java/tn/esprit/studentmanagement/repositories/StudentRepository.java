@@ -1,9 +1,96 @@
 package tn.esprit.studentmanagement.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
+import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpecificationExecutor<Student> {
+
+    // Le département (@ManyToOne EAGER) est chargé dans la même requête au lieu d'un SELECT par ligne
+    @Override
+    @EntityGraph(Student.GRAPH_WITH_DEPARTMENT)
+    List<Student> findAll();
+
+    // Pagination keyset : parcourt l'index primaire à partir du dernier id lu
+    @EntityGraph(Student.GRAPH_WITH_DEPARTMENT)
+    List<Student> findByIdStudentGreaterThanOrderByIdStudentAsc(Long idStudent, Limit limit);
+
+    // Même pagination dans un département, filtrée sur la clé étrangère (sans jointure) :
+    // parcours de l'index idx_student_department (department_id_department, id_student)
+    @EntityGraph(Student.GRAPH_WITH_DEPARTMENT)
+    @Query("select s from Student s where s.department.idDepartment = :department and s.idStudent > :after order by s.idStudent")
+    List<Student> findDepartmentPage(@Param("department") Long idDepartment, @Param("after") Long afterId, Limit limit);
+
+    // Recherche filtrée (voir StudentSpecifications) avec le département dans la même requête
+    @Override
+    @EntityGraph(Student.GRAPH_WITH_DEPARTMENT)
+    Page<Student> findAll(Specification<Student> spec, Pageable pageable);
+
+    @Query("select new tn.esprit.studentmanagement.dto.StudentSummary(s.idStudent, s.firstName, s.lastName, s.email) "
+            + "from Student s order by s.idStudent")
+    List<StudentSummary> findAllSummaries();
+
+    @Query("select new tn.esprit.studentmanagement.dto.StudentWithDepartment(s.idStudent, s.firstName, s.lastName, "
+            + "s.email, s.phone, s.dateOfBirth, d.idDepartment, d.name) "
+            + "from Student s left join s.department d order by s.idStudent")
+    List<StudentWithDepartment> findAllWithDepartment();
+
+    // Export : même projection lue par curseur (fetch size ; useCursorFetch sous MySQL), à consommer en transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new tn.esprit.studentmanagement.dto.StudentWithDepartment(s.idStudent, s.firstName, s.lastName, "
+            + "s.email, s.phone, s.dateOfBirth, d.idDepartment, d.name) "
+            + "from Student s left join s.department d order by s.idStudent")
+    Stream<StudentWithDepartment> streamAllWithDepartment();
+
+    @EntityGraph(Student.GRAPH_TRANSCRIPT)
+    @Query("select s from Student s order by s.idStudent")
+    List<Student> findAllWithTranscript();
+
+    // Relevé d'un étudiant : département, inscriptions et cours en une seule requête jointe
+    @EntityGraph(Student.GRAPH_TRANSCRIPT)
+    @Query("select s from Student s where s.idStudent = :id")
+    Optional<Student> findWithTranscriptById(@Param("id") Long idStudent);
+
+    // Version courante seule (contrôle If-Match sans charger l'entité)
+    @Query("select s.version from Student s where s.idStudent = :id")
+    Optional<Long> findVersionById(@Param("id") Long idStudent);
+
+    @Query("select d.idDepartment from Student s join s.department d where s.idStudent = :id")
+    Optional<Long> findDepartmentIdById(@Param("id") Long idStudent);
+
+    // Suppressions en masse (voir BulkDeleter) : un ordre SQL par lot d'ids, sans charger les entités
+    @Modifying
+    @Query("delete from Student s where s.idStudent in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> idStudents);
+
+    long countByDepartmentIdDepartmentIn(Collection<Long> idDepartments);
+
+    @Query("select s.idStudent from Student s where s.department.idDepartment in :ids")
+    List<Long> findIdsByDepartmentIds(@Param("ids") Collection<Long> idDepartments);
+
+    // target null : étudiants détachés de leur département
+    @Modifying
+    @Query("update Student s set s.department = :target, s.version = s.version + 1 where s.department.idDepartment in :ids")
+    int moveFromDepartments(@Param("ids") Collection<Long> idDepartments, @Param("target") Department target);
 }
@@ -0,0 +1,63 @@
+package tn.esprit.studentmanagement.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.entities.Student;
+
+// Chaque filtre correspond à un index déclaré sur Student (préfixe LIKE 'x%', égalité ou intervalle)
+public final class StudentSpecifications {
+
+    private StudentSpecifications() {
+    }
+
+    public static Specification<Student> matching(StudentSearchCriteria criteria) {
+        return Specification.allOf(
+                namePrefix(criteria.name()),
+                emailEquals(criteria.email()),
+                inDepartment(criteria.departmentId()),
+                bornBetween(criteria));
+    }
+
+    static Specification<Student> namePrefix(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String pattern = escapeLike(name.trim()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("lastName"), pattern, '\\'),
+                cb.like(root.get("firstName"), pattern, '\\'));
+    }
+
+    static Specification<Student> emailEquals(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("email"), email.trim());
+    }
+
+    static Specification<Student> inDepartment(Long departmentId) {
+        if (departmentId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("department").get("idDepartment"), departmentId);
+    }
+
+    static Specification<Student> bornBetween(StudentSearchCriteria criteria) {
+        if (criteria.bornAfter() == null && criteria.bornBefore() == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (criteria.bornBefore() == null) {
+                return cb.greaterThanOrEqualTo(root.get("dateOfBirth"), criteria.bornAfter());
+            }
+            if (criteria.bornAfter() == null) {
+                return cb.lessThanOrEqualTo(root.get("dateOfBirth"), criteria.bornBefore());
+            }
+            return cb.between(root.get("dateOfBirth"), criteria.bornAfter(), criteria.bornBefore());
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
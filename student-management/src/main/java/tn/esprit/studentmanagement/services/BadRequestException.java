@@ -0,0 +1,14 @@
+package tn.esprit.studentmanagement.services;
+
+// Requête invalide (paramètre, curseur, tri, champ de PATCH...) : seul ce type donne un 400 avec son message ;
+// une IllegalArgumentException interne reste une erreur serveur et son message n'est pas renvoyé au client
+public class BadRequestException extends IllegalArgumentException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
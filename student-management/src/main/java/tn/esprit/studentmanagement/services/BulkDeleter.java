@@ -0,0 +1,200 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.repositories.StudentSpecifications;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Suppressions en masse : DELETE / UPDATE ensemblistes par lots d'ids, dépendants d'abord, le tout dans une
+// transaction. Ces ordres ne passent ni par le contexte de persistance ni par les listeners JPA : versions
+// HTTP signalées ici, caches et statistiques mis à jour par les services une fois la transaction validée.
+@Component
+public class BulkDeleter {
+    // Taille des listes IN
+    static final int CHUNK_SIZE = 1000;
+
+    private static final Logger logger = LogManager.getLogger(BulkDeleter.class);
+
+    private final EntityManager entityManager;
+    private final StudentRepository studentRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ResourceVersionTracker versionTracker;
+
+    // Note d'un étudiant changé de département : before dans l'ancien, after dans le nouveau (ou sans)
+    public record Move(GradeSample before, GradeSample after) {
+    }
+
+    // removedSamples : notes des inscriptions supprimées, à retirer des statistiques ;
+    // movedSamples : notes des étudiants détachés ou réaffectés, à changer de département
+    public record Outcome(BulkDeleteReport report, List<GradeSample> removedSamples, List<Move> movedSamples) {
+        public Outcome(BulkDeleteReport report, List<GradeSample> removedSamples) {
+            this(report, removedSamples, List.of());
+        }
+
+        // Cours qui ont perdu des inscrits (index d'admission à recharger)
+        public Set<Long> affectedCourses() {
+            return removedSamples.stream().map(GradeSample::idCourse).filter(Objects::nonNull).collect(Collectors.toSet());
+        }
+    }
+
+    public BulkDeleter(EntityManager entityManager, StudentRepository studentRepository,
+                       DepartmentRepository departmentRepository, EnrollmentRepository enrollmentRepository,
+                       ResourceVersionTracker versionTracker) {
+        this.entityManager = entityManager;
+        this.studentRepository = studentRepository;
+        this.departmentRepository = departmentRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.versionTracker = versionTracker;
+    }
+
+    @Transactional
+    public Outcome deleteStudents(Collection<Long> idStudents) {
+        List<Long> ids = distinct(idStudents);
+        List<GradeSample> samples = new ArrayList<>();
+        int enrollments = 0;
+        int students = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            samples.addAll(enrollmentRepository.findGradeSamplesByStudentIds(chunk));
+            enrollments += enrollmentRepository.deleteByStudentIds(chunk);
+            students += studentRepository.deleteByIds(chunk);
+        }
+        changed(0, students, 0, enrollments);
+        logger.info("Bulk deleted {} of {} students, {} enrollments", students, ids.size(), enrollments);
+        return new Outcome(new BulkDeleteReport(0, students, 0, enrollments), samples);
+    }
+
+    @Transactional
+    public Outcome deleteStudentsMatching(StudentSearchCriteria criteria) {
+        return deleteStudents(findStudentIds(criteria));
+    }
+
+    @Transactional
+    public Outcome deleteDepartments(Collection<Long> idDepartments, DepartmentBulkDelete.StudentPolicy policy, Long reassignTo) {
+        List<Long> ids = distinct(idDepartments);
+        Outcome cascade = null;
+        int moved = 0;
+        List<Move> movedSamples = List.of();
+        switch (policy) {
+            case RESTRICT -> {
+                long dependents = sum(ids, studentRepository::countByDepartmentIdDepartmentIn);
+                if (dependents > 0) {
+                    throw new DataIntegrityViolationException(dependents + " students still belong to departments " + ids);
+                }
+            }
+            case DETACH -> {
+                movedSamples = movedSamples(ids, null);
+                moved = (int) sum(ids, chunk -> (long) studentRepository.moveFromDepartments(chunk, null));
+            }
+            case REASSIGN -> {
+                if (reassignTo == null || ids.contains(reassignTo)) {
+                    throw new BadRequestException("reassignTo must be a department that is not being deleted");
+                }
+                if (!departmentRepository.existsById(reassignTo)) {
+                    throw new BadRequestException("Unknown department to reassign to: " + reassignTo);
+                }
+                Department target = entityManager.getReference(Department.class, reassignTo);
+                movedSamples = movedSamples(ids, reassignTo);
+                moved = (int) sum(ids, chunk -> (long) studentRepository.moveFromDepartments(chunk, target));
+            }
+            case CASCADE -> {
+                List<Long> students = new ArrayList<>();
+                chunks(ids).forEach(chunk -> students.addAll(studentRepository.findIdsByDepartmentIds(chunk)));
+                cascade = deleteStudents(students);
+            }
+        }
+        int departments = (int) sum(ids, chunk -> (long) departmentRepository.deleteByIds(chunk));
+        changed(departments, 0, moved, 0);
+        BulkDeleteReport report = cascade == null
+                ? new BulkDeleteReport(departments, 0, moved, 0)
+                : new BulkDeleteReport(departments, cascade.report().studentsDeleted(), 0, cascade.report().enrollmentsDeleted());
+        logger.info("Bulk deleted {} of {} departments ({}): {}", departments, ids.size(), policy, report);
+        return new Outcome(report, cascade == null ? List.of() : cascade.removedSamples(), movedSamples);
+    }
+
+    // Lues avant l'UPDATE : leur département d'origine n'est plus en base ensuite
+    private List<Move> movedSamples(List<Long> idDepartments, Long toDepartment) {
+        List<Move> moves = new ArrayList<>();
+        for (List<Long> chunk : chunks(idDepartments)) {
+            for (GradeSample sample : enrollmentRepository.findGradeSamplesByDepartmentIds(chunk)) {
+                moves.add(new Move(sample, new GradeSample(sample.idStudent(), sample.idCourse(), toDepartment,
+                        sample.grade(), sample.status())));
+            }
+        }
+        return moves;
+    }
+
+    // Ids seuls : la suppression ne charge jamais les étudiants
+    private List<Long> findStudentIds(StudentSearchCriteria criteria) {
+        if (criteria == null || (criteria.name() == null && criteria.email() == null && criteria.departmentId() == null
+                && criteria.bornAfter() == null && criteria.bornBefore() == null)) {
+            throw new BadRequestException("At least one filter is required to delete students by filter");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Student> root = query.from(Student.class);
+        query.select(root.get("idStudent")).where(StudentSpecifications.matching(criteria).toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private void changed(int departments, int students, int moved, int enrollments) {
+        if (departments > 0) {
+            versionTracker.changed(ResourceVersionTracker.Resource.DEPARTMENT);
+        }
+        if (students > 0 || moved > 0) {
+            versionTracker.changed(ResourceVersionTracker.Resource.STUDENT);
+        }
+        if (enrollments > 0) {
+            versionTracker.changed(ResourceVersionTracker.Resource.ENROLLMENT);
+        }
+    }
+
+    private static long sum(List<Long> ids, Function<List<Long>, Long> statement) {
+        long total = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            total += statement.apply(chunk);
+        }
+        return total;
+    }
+
+    private static List<Long> distinct(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        return distinct;
+    }
+
+    static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
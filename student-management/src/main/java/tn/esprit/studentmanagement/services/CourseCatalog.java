@@ -0,0 +1,156 @@
+package tn.esprit.studentmanagement.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Catalogue des cours entièrement en mémoire : recherche par id ou par code sans requête SQL.
+// Chargé au premier accès, tenu à jour par CourseService à chaque écriture et rechargé
+// complètement après reload-interval (écritures des autres instances).
+// Le catalogue garde ses propres copies détachées et n'en rend que des copies : un appelant qui
+// modifie le cours reçu ne change pas ce que voient les autres.
+@Component
+public class CourseCatalog {
+    private static final Logger logger = LogManager.getLogger(CourseCatalog.class);
+
+    private final CourseRepository courseRepository;
+    private final long reloadIntervalNanos;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(NavigableMap<Long, Course> byId, Map<String, Course> byCode, long loadedAt) {
+    }
+
+    public CourseCatalog(CourseRepository courseRepository,
+                         @Value("${app.catalog.course.reload-interval:5m}") Duration reloadInterval) {
+        this.courseRepository = courseRepository;
+        this.reloadIntervalNanos = reloadInterval.toNanos();
+    }
+
+    public Optional<Course> findById(Long idCourse) {
+        return idCourse == null ? Optional.empty() : Optional.ofNullable(current().byId().get(idCourse)).map(CourseCatalog::copy);
+    }
+
+    public Optional<Course> findByCode(String code) {
+        return code == null ? Optional.empty() : Optional.ofNullable(current().byCode().get(normalize(code))).map(CourseCatalog::copy);
+    }
+
+    public List<Course> findAll() {
+        return current().byId().values().stream().map(CourseCatalog::copy).toList();
+    }
+
+    // Pages triées par id
+    public PageResponse<Course> findPage(int page, int size) {
+        NavigableMap<Long, Course> byId = current().byId();
+        List<Course> content = byId.values().stream().skip((long) page * size).limit(size).map(CourseCatalog::copy).toList();
+        int total = byId.size();
+        return new PageResponse<>(content, page, size, total, (total + size - 1) / size);
+    }
+
+    // Dans une transaction : appliqué après le commit, pour qu'un rechargement lancé entre-temps (qui ne
+    // voit pas encore la ligne) ne l'efface pas. put, remove et reload sont sérialisés : une écriture
+    // attend la fin d'un rechargement en cours puis s'applique au nouvel état.
+    public void put(Course course) {
+        Course copy = copy(course);
+        afterCommit(() -> applyPut(copy));
+    }
+
+    public void remove(Long idCourse) {
+        afterCommit(() -> applyRemove(idCourse));
+    }
+
+    private synchronized void applyPut(Course course) {
+        Snapshot current = current();
+        Course previous = current.byId().put(course.getIdCourse(), course);
+        if (previous != null && previous.getCode() != null) {
+            current.byCode().remove(normalize(previous.getCode()), previous);
+        }
+        if (course.getCode() != null) {
+            current.byCode().put(normalize(course.getCode()), course);
+        }
+    }
+
+    private synchronized void applyRemove(Long idCourse) {
+        Snapshot current = current();
+        Course previous = current.byId().remove(idCourse);
+        if (previous != null && previous.getCode() != null) {
+            current.byCode().remove(normalize(previous.getCode()), previous);
+        }
+    }
+
+    // Cours écrit par une autre instance depuis le dernier chargement (absent ou périmé ici) : relu en base
+    // et reporté dans le catalogue sans attendre le rechargement complet
+    public Optional<Course> refresh(Long idCourse) {
+        Optional<Course> loaded = courseRepository.findById(idCourse).map(CourseCatalog::copy);
+        loaded.ifPresentOrElse(this::applyPut, () -> applyRemove(idCourse));
+        return loaded.map(CourseCatalog::copy);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    public synchronized int reload() {
+        NavigableMap<Long, Course> byId = new ConcurrentSkipListMap<>();
+        Map<String, Course> byCode = new ConcurrentHashMap<>();
+        for (Course loaded : courseRepository.findAll()) {
+            Course course = copy(loaded);
+            byId.put(course.getIdCourse(), course);
+            if (course.getCode() != null) {
+                byCode.put(normalize(course.getCode()), course);
+            }
+        }
+        snapshot = new Snapshot(byId, byCode, System.nanoTime());
+        logger.info("Course catalog loaded: {} courses", byId.size());
+        return byId.size();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.loadedAt() > reloadIntervalNanos) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || System.nanoTime() - current.loadedAt() > reloadIntervalNanos) {
+                    reload();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Champs du cours seuls (pas ses inscriptions)
+    private static Course copy(Course course) {
+        return new Course(course.getIdCourse(), course.getName(), course.getCode(), course.getCredit(),
+                course.getDescription(), course.getCapacity(), course.getSeatsTaken(), null);
+    }
+
+    // Même règle que la collation MySQL (insensible à la casse) qui porte l'index unique sur code
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package tn.esprit.studentmanagement.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Lectures servies par CourseCatalog (mémoire), écritures en base puis reportées dans le catalogue
+// après le commit (voir CourseCatalog.put)
+@Service
+public class CourseService implements ICourseService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    CourseRepository courseRepository;
+    @Autowired
+    CourseCatalog courseCatalog;
+    @Autowired
+    EnrollmentAdmission enrollmentAdmission;
+
+    private static final Logger logger = LogManager.getLogger(CourseService.class);
+
+    @Override
+    public List<Course> getAllCourses() {
+        logger.info("Fetching all courses");
+        return courseCatalog.findAll();
+    }
+
+    @Override
+    public PageResponse<Course> getCoursesPage(int page, Integer size) {
+        if (page < 0) {
+            throw new BadRequestException("page must be >= 0");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        logger.info("Fetching courses page={} size={}", page, pageSize);
+        return courseCatalog.findPage(page, pageSize);
+    }
+
+    @Override
+    public Course getCourseById(Long idCourse) {
+        logger.info("Fetching course id={}", idCourse);
+        return courseCatalog.findById(idCourse)
+                .orElseThrow(() -> new NoSuchElementException("Course not found: " + idCourse));
+    }
+
+    @Override
+    public Course getCourseByCode(String code) {
+        logger.info("Fetching course code={}", code);
+        return courseCatalog.findByCode(code)
+                .orElseThrow(() -> new NoSuchElementException("Course not found: " + code));
+    }
+
+    // Les inscriptions et relevés en cache embarquent le cours : on les invalide aussi
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
+    public Course saveCourse(Course course) {
+        logger.info("Saving course id={}", course.getIdCourse());
+        try {
+            Course saved = courseRepository.save(course);
+            courseCatalog.put(saved);
+            logger.debug("Saved course id={}", saved.getIdCourse());
+            return saved;
+        } catch (Exception e) {
+            logger.error("Error saving course id={}", course.getIdCourse(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
+    public void deleteCourse(Long idCourse) {
+        logger.info("Deleting course id={}", idCourse);
+        try {
+            courseRepository.deleteById(idCourse);
+            courseCatalog.remove(idCourse);
+            enrollmentAdmission.forget(List.of(idCourse));
+            logger.debug("Deleted course id={}", idCourse);
+        } catch (Exception e) {
+            logger.error("Error deleting course id={}", idCourse, e);
+            throw e;
+        }
+    }
+}
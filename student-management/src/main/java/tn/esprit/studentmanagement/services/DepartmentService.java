@@ -1,23 +1,51 @@
 package tn.esprit.studentmanagement.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 @Service
 
 public class DepartmentService implements IDepartmentService {
     private static final Logger logger = LogManager.getLogger(DepartmentService.class);
+    static final Set<String> PATCHABLE_FIELDS = Set.of("name", "location", "phone", "head");
 
     @Autowired
     DepartmentRepository departmentRepository;
+    @Autowired
+    StudentRepository studentRepository;
+    @Autowired
+    PartialUpdater partialUpdater;
+    @Autowired
+    BulkDeleter bulkDeleter;
+    @Autowired
+    IGradeStatisticsService gradeStatisticsService;
+    @Autowired
+    EnrollmentAdmission enrollmentAdmission;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Department> getAllDepartments() {
         logger.info("Fetching all departments");
         List<Department> list = departmentRepository.findAll();
@@ -26,11 +54,12 @@ public class DepartmentService implements IDepartmentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Department getDepartmentById(Long idDepartment) {
         logger.info("Fetching department by id {}", idDepartment);
         try {
             Department dept = departmentRepository.findById(idDepartment).get();
-            logger.debug("Found department: {}", dept);
+            logger.debug("Found department id {}", dept.getIdDepartment());
             return dept;
         } catch (Exception e) {
             logger.error("Error fetching department id {}", idDepartment, e);
@@ -38,28 +67,146 @@ public class DepartmentService implements IDepartmentService {
         }
     }
 
+    // Département et nombre d'étudiants en une requête, quelle que soit la taille du département
+    @Override
+    @Transactional(readOnly = true)
+    public List<DepartmentSummary> getAllDepartmentSummaries() {
+        logger.info("Fetching all department summaries");
+        List<DepartmentSummary> list = departmentRepository.findAllSummaries();
+        logger.debug("Found {} departments", list.size());
+        return list;
+    }
+
+    // Vue servie par getDepartment : en cache jusqu'à une écriture du département ou d'un étudiant
+    // (l'effectif change, voir les évictions de StudentService)
+    @Override
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENTS, key = "#idDepartment")
+    @Transactional(readOnly = true)
+    public DepartmentSummary getDepartmentSummary(Long idDepartment) {
+        logger.info("Fetching department summary id {}", idDepartment);
+        return departmentRepository.findSummaryById(idDepartment)
+                .orElseThrow(() -> new NoSuchElementException("Department not found: " + idDepartment));
+    }
+
+    // Étudiants du département par pages keyset (comme StudentService.getStudentsPage)
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Student> getDepartmentStudents(Long idDepartment, String cursor, Integer size) {
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = size == null ? StudentService.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, StudentService.MAX_PAGE_SIZE));
+        logger.info("Fetching students of department {} after id={} size={}", idDepartment, afterId, pageSize);
+        List<Student> rows = studentRepository.findDepartmentPage(idDepartment, afterId, Limit.of(pageSize + 1));
+        // Page vide : département sans étudiants (après ce curseur) ou inexistant
+        if (rows.isEmpty() && !departmentRepository.existsById(idDepartment)) {
+            throw new NoSuchElementException("Department not found: " + idDepartment);
+        }
+        boolean hasNext = rows.size() > pageSize;
+        List<Student> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String next = hasNext ? CursorPage.encodeCursor(content.get(pageSize - 1).getIdStudent()) : null;
+        logger.debug("Found {} students, next cursor={}", content.size(), next);
+        return new CursorPage<>(content, next, pageSize);
+    }
+
+    // Les étudiants et inscriptions en cache embarquent le département : on les invalide aussi
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#department.idDepartment", condition = "#department.idDepartment != null"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
     public Department saveDepartment(Department department) {
-        logger.info("Saving department: {}", department);
+        logger.info("Saving department id {}", department.getIdDepartment());
         try {
             Department saved = departmentRepository.save(department);
             logger.debug("Saved department id {}", saved == null ? "null" : saved.getIdDepartment());
             return saved;
         } catch (Exception e) {
-            logger.error("Error saving department {}", department, e);
+            logger.error("Error saving department id {}", department.getIdDepartment(), e);
             throw e;
         }
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#department.idDepartment", condition = "#department.idDepartment != null"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
+    public Department updateDepartment(Department department, Long expectedVersion) {
+        Long id = department.getIdDepartment();
+        if (id == null) {
+            throw new BadRequestException("idDepartment is required");
+        }
+        logger.info("Updating department id {} expectedVersion {}", id, expectedVersion);
+        long currentVersion = departmentRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Department not found: " + id));
+        PartialUpdater.checkVersion("Department", id, expectedVersion, currentVersion);
+        department.setVersion(currentVersion);
+        Department saved = departmentRepository.save(department);
+        logger.debug("Updated department id {} to version {}", id, saved.getVersion());
+        return saved;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#idDepartment"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
+    public long patchDepartment(Long idDepartment, Map<String, Object> changes, Long expectedVersion) {
+        logger.info("Patching department id {} fields {} expectedVersion {}", idDepartment, changes.keySet(), expectedVersion);
+        if (partialUpdater.update(Department.class, "idDepartment", idDepartment, expectedVersion, changes, PATCHABLE_FIELDS) == 0) {
+            throw departmentRepository.existsById(idDepartment)
+                    ? new OptimisticLockingFailureException("Department " + idDepartment + " is no longer at version " + expectedVersion)
+                    : new NoSuchElementException("Department not found: " + idDepartment);
+        }
+        return expectedVersion != null ? expectedVersion + 1 : departmentRepository.findVersionById(idDepartment).orElseThrow();
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#idDepartment"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
     public void deleteDepartment(Long idDepartment) {
         logger.info("Deleting department id {}", idDepartment);
         try {
-            departmentRepository.deleteById(idDepartment);
+            // Refusé (409) tant que le département a des étudiants : voir deleteDepartments pour les autres choix
+            bulkDeleter.deleteDepartments(List.of(idDepartment), DepartmentBulkDelete.StudentPolicy.RESTRICT, null);
             logger.debug("Deleted department id {}", idDepartment);
         } catch (Exception e) {
             logger.error("Error deleting department id {}", idDepartment, e);
             throw e;
         }
     }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    })
+    @Transactional
+    public BulkDeleteReport deleteDepartments(DepartmentBulkDelete request) {
+        if (request.ids() == null || request.ids().isEmpty()) {
+            throw new BadRequestException("ids is required");
+        }
+        logger.info("Bulk deleting {} departments, students: {}", request.ids().size(), request.students());
+        BulkDeleter.Outcome outcome = bulkDeleter.deleteDepartments(request.ids(), request.students(), request.reassignTo());
+        outcome.removedSamples().forEach(sample -> gradeStatisticsService.recordChange(sample, null));
+        // Étudiants déplacés en masse : leurs notes passent d'un agrégat de département à l'autre
+        outcome.movedSamples().forEach(move -> gradeStatisticsService.recordChange(move.before(), move.after()));
+        enrollmentAdmission.forget(outcome.affectedCourses());
+        return outcome.report();
+    }
 }
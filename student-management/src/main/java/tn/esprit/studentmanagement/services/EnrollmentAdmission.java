@@ -0,0 +1,238 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admission des inscriptions, d'abord en mémoire sans verrou global ni SELECT ... FOR UPDATE : par cours,
+// l'ensemble concurrent des étudiants inscrits (doublons) et un compteur de places incrémenté par CAS (capacité).
+// Chaque cours est chargé depuis la base à son premier accès, puis rechargé après reload-interval ; une inscription
+// = une place, sauf abandon ou retrait (DROPPED, WITHDRAWN) : sa place est rendue et l'étudiant peut être réadmis.
+// L'index écarte sans requête les doublons ; la base garde le dernier mot pour toutes les instances : contrainte
+// unique uk_enrollment_student_course, et compteur course.seats_taken pris par un UPDATE conditionnel (0 ligne si
+// le cours est plein, capacité lue dans la ligne) dans la transaction de l'écriture, pour toute admission.
+// Catalogue et index peuvent être en retard sur une autre instance : un cours absent du catalogue est relu en base,
+// et un cours plein d'après l'index n'est refusé qu'après confirmation par la base.
+// Les places rendues ne le sont en mémoire qu'au commit ; une réservation annulée par un rollback est rendue.
+@Component
+public class EnrollmentAdmission {
+    static final String METRIC = "enrollment.admissions";
+
+    private static final Logger logger = LogManager.getLogger(EnrollmentAdmission.class);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseCatalog courseCatalog;
+    private final long reloadIntervalNanos;
+    private final ConcurrentMap<Long, Seats> courses = new ConcurrentHashMap<>();
+    private final Counter admitted;
+    private final Counter alreadyEnrolled;
+    private final Counter courseFull;
+
+    private static final class Seats {
+        final Set<Long> students = ConcurrentHashMap.newKeySet();
+        final AtomicInteger taken = new AtomicInteger();
+        final long loadedAt = System.nanoTime();
+
+        boolean take(int capacity) {
+            while (true) {
+                int current = taken.get();
+                if (current >= capacity) {
+                    return false;
+                }
+                if (taken.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    public EnrollmentAdmission(EnrollmentRepository enrollmentRepository, CourseRepository courseRepository,
+                               CourseCatalog courseCatalog, MeterRegistry meterRegistry,
+                               @Value("${app.enrollment.admission.reload-interval:5m}") Duration reloadInterval) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.courseCatalog = courseCatalog;
+        this.reloadIntervalNanos = reloadInterval.toNanos();
+        this.admitted = counter(meterRegistry, "admitted");
+        this.alreadyEnrolled = counter(meterRegistry, "already_enrolled");
+        this.courseFull = counter(meterRegistry, "course_full");
+    }
+
+    // Réserve la place avant l'INSERT, dans la transaction de l'écriture : en mémoire puis en base (takeSeats,
+    // qui verrouille la ligne du cours jusqu'au commit). Rendue en mémoire si la transaction est annulée.
+    // Sans réservation en mémoire (cours inexistant, index périmé), la place est quand même prise en base
+    public void admit(Long idStudent, Long idCourse) {
+        if (idStudent == null || idCourse == null) {
+            return;
+        }
+        boolean reserved = reserve(idStudent, idCourse);
+        try {
+            takeSeats(idCourse, 1);
+        } catch (RuntimeException e) {
+            if (reserved) {
+                unreserve(idStudent, idCourse);
+            }
+            throw e;
+        }
+        if (reserved) {
+            afterRollback(() -> unreserve(idStudent, idCourse));
+        }
+        admitted.increment();
+    }
+
+    // Réservation en mémoire seule (import : la place est prise en base avec le lot, voir takeSeats) ;
+    // false si rien n'est réservé en mémoire : cours inexistant (la clé étrangère tranche) ou index en retard
+    // sur la base (takeSeats tranche)
+    boolean reserve(Long idStudent, Long idCourse) {
+        if (idStudent == null || idCourse == null) {
+            return false;
+        }
+        Course course = courseCatalog.findById(idCourse).or(() -> courseCatalog.refresh(idCourse)).orElse(null);
+        if (course == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        Seats seats = courses.compute(idCourse,
+                (id, loaded) -> loaded == null || now - loaded.loadedAt > reloadIntervalNanos ? load(id) : loaded);
+        if (!seats.students.add(idStudent)) {
+            alreadyEnrolled.increment();
+            throw new EnrollmentRejectedException(EnrollmentRejectedException.Reason.ALREADY_ENROLLED,
+                    "Student " + idStudent + " is already enrolled in course " + idCourse);
+        }
+        // Capacité relue à chaque admission : une modification du cours s'applique tout de suite
+        Integer capacity = course.getCapacity();
+        if (!seats.take(capacity == null ? Integer.MAX_VALUE : capacity)) {
+            seats.students.remove(idStudent);
+            // Capacité augmentée ou places rendues sur une autre instance : confirmé en base avant de refuser
+            if (!courseRepository.hasFreeSeat(idCourse).orElse(false)) {
+                courseFull.increment();
+                throw new EnrollmentRejectedException(EnrollmentRejectedException.Reason.COURSE_FULL,
+                        "Course " + idCourse + " is full (" + capacity + " seats)");
+            }
+            logger.debug("Admission index of course {} is behind the database, reloading it", idCourse);
+            courseCatalog.refresh(idCourse);
+            afterCommit(() -> courses.remove(idCourse));
+            return false;
+        }
+        return true;
+    }
+
+    // Garde-fou en base, dans la transaction de l'écriture : count places prises d'un coup, refusé si elles
+    // dépassent la capacité (inscriptions d'autres instances, index périmé). Cours absent : la clé étrangère tranche
+    void takeSeats(Long idCourse, int count) {
+        if (courseRepository.takeSeats(idCourse, count) == 0 && courseRepository.existsById(idCourse)) {
+            courseFull.increment();
+            throw new EnrollmentRejectedException(EnrollmentRejectedException.Reason.COURSE_FULL,
+                    "Course " + idCourse + " is full");
+        }
+    }
+
+    // Inscription existante qui change de statut (même étudiant, même cours) : abandon ou retrait rend la place,
+    // une réactivation en reprend une (et peut être refusée si le cours est plein entre-temps)
+    public void statusChanged(Long idStudent, Long idCourse, Status before, Status after) {
+        if (holdsSeat(before) && !holdsSeat(after)) {
+            release(idStudent, idCourse);
+        } else if (!holdsSeat(before) && holdsSeat(after)) {
+            admit(idStudent, idCourse);
+        }
+    }
+
+    public static boolean holdsSeat(Status status) {
+        return status != Status.DROPPED && status != Status.WITHDRAWN;
+    }
+
+    // Inscription supprimée, déplacée, abandonnée ou retirée, dans la transaction de l'écriture :
+    // place rendue en base tout de suite, en mémoire au commit (un rollback la laisse prise)
+    public void release(Long idStudent, Long idCourse) {
+        if (idStudent == null || idCourse == null) {
+            return;
+        }
+        courseRepository.releaseSeat(idCourse);
+        afterCommit(() -> unreserve(idStudent, idCourse));
+    }
+
+    // Réservation en mémoire rendue (import : ligne finalement non écrite)
+    void unreserve(Long idStudent, Long idCourse) {
+        Seats seats = courses.get(idCourse);
+        if (seats != null && seats.students.remove(idStudent)) {
+            seats.taken.decrementAndGet();
+        }
+    }
+
+    // Inscriptions écrites sans passer par admit()/release() (suppressions en masse, notes différées) :
+    // places recomptées en base dans la transaction, cours rechargés en mémoire à leur prochain accès après le commit
+    public void forget(Collection<Long> idCourses) {
+        if (idCourses.isEmpty()) {
+            return;
+        }
+        BulkDeleter.chunks(new ArrayList<>(idCourses)).forEach(courseRepository::recountSeats);
+        afterCommit(() -> idCourses.forEach(courses::remove));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    change.run();
+                }
+            }
+        });
+    }
+
+    // Exécuté sous le verrou du seul cours concerné (computeIfAbsent) : les autres cours ne sont pas bloqués
+    private Seats load(Long idCourse) {
+        Seats seats = new Seats();
+        int rows = 0;
+        for (Long idStudent : enrollmentRepository.findStudentIdsByCourse(idCourse)) {
+            rows++;
+            if (idStudent != null) {
+                seats.students.add(idStudent);
+            }
+        }
+        seats.taken.set(rows);
+        logger.debug("Admission index loaded for course {}: {} seats taken", idCourse, rows);
+        return seats;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC)
+                .description("Enrollment admissions by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
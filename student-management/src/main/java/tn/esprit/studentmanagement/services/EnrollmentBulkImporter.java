@@ -0,0 +1,244 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.BulkImportReport.RecordFailure;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Import en flux d'inscriptions (tableau JSON ou NDJSON) écrit par lots.
+// Chaque ligne réserve sa place en mémoire à la lecture (EnrollmentAdmission) : doublon et cours plein
+// sont rapportés comme échecs de la ligne ; les places du lot sont prises en base dans sa transaction
+// (un cours plein entre-temps fait échouer le lot, rejoué ligne à ligne) et la réservation est rendue
+// si la ligne n'est finalement pas écrite.
+// La contribution aux statistiques des lignes écrites est lue et remise dans la transaction de leur lot :
+// recordChange l'applique au commit de ce lot, rien pour un lot annulé.
+// Les ids viennent de la séquence (blocs de 50 en mémoire) : Hibernate regroupe les inserts
+// de chaque lot en batchs JDBC (hibernate.jdbc.batch_size), sans aller-retour par ligne.
+@Component
+public class EnrollmentBulkImporter {
+    private static final Logger logger = LogManager.getLogger(EnrollmentBulkImporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final CourseCatalog courseCatalog;
+    private final EnrollmentAdmission enrollmentAdmission;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+    private final int maxReportedFailures;
+
+    public EnrollmentBulkImporter(ObjectMapper objectMapper, EntityManager entityManager, CourseCatalog courseCatalog,
+                                  EnrollmentAdmission enrollmentAdmission, PlatformTransactionManager transactionManager,
+                                  @Value("${app.enrollment.import.batch-size:500}") int batchSize,
+                                  @Value("${app.enrollment.import.max-reported-failures:1000}") int maxReportedFailures) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.courseCatalog = courseCatalog;
+        this.enrollmentAdmission = enrollmentAdmission;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        // Chaque lot est validé indépendamment : un lot en échec n'annule pas les précédents
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    // imported : reçoit la note de chaque ligne écrite, dans la transaction de son lot
+    public BulkImportReport importEnrollments(InputStream input, Consumer<GradeSample> imported) throws IOException {
+        Progress progress = new Progress(imported);
+        List<IndexedEnrollment> batch = new ArrayList<>(batchSize);
+        // readValues() lit les valeurs une à une : tableau JSON racine ou suite de documents (NDJSON)
+        try (MappingIterator<Enrollment> records = objectMapper.readerFor(Enrollment.class).readValues(input)) {
+            while (true) {
+                long index = progress.received;
+                Enrollment enrollment;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    enrollment = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    progress.received++;
+                    progress.fail(index, "Unreadable record: " + e.getOriginalMessage());
+                    if (e instanceof JsonParseException) {
+                        // JSON syntaxiquement invalide : impossible de se resynchroniser sur l'enregistrement suivant
+                        break;
+                    }
+                    continue;
+                }
+                progress.received++;
+                String invalid = resolveAndValidate(enrollment);
+                if (invalid == null) {
+                    invalid = admit(enrollment);
+                }
+                if (invalid != null) {
+                    progress.fail(index, invalid);
+                    continue;
+                }
+                batch.add(new IndexedEnrollment(index, enrollment));
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, progress);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, progress);
+        }
+        logger.info("Enrollment import finished: received={}, imported={}, failed={}",
+                progress.received, progress.imported, progress.failed);
+        return new BulkImportReport(progress.received, progress.imported, progress.failed,
+                progress.failures, progress.failed > progress.failures.size());
+    }
+
+    // Le cours peut être désigné par son code (ex. CS101) : résolu par le catalogue, sans requête
+    private String resolveAndValidate(Enrollment enrollment) {
+        if (enrollment == null) {
+            return "Empty record";
+        }
+        if (enrollment.getStudent() == null || enrollment.getStudent().getIdStudent() == null) {
+            return "Missing student.idStudent";
+        }
+        Course course = enrollment.getCourse();
+        if (course != null && course.getIdCourse() == null && course.getCode() != null) {
+            Course known = courseCatalog.findByCode(course.getCode()).orElse(null);
+            if (known == null) {
+                return "Unknown course.code " + course.getCode();
+            }
+            enrollment.setCourse(known);
+        }
+        if (enrollment.getCourse() == null || enrollment.getCourse().getIdCourse() == null) {
+            return "Missing course.idCourse or course.code";
+        }
+        return null;
+    }
+
+    // Abandons et retraits ne prennent pas de place (EnrollmentAdmission.holdsSeat)
+    private String admit(Enrollment enrollment) {
+        if (!EnrollmentAdmission.holdsSeat(enrollment.getStatus())) {
+            return null;
+        }
+        try {
+            enrollmentAdmission.reserve(enrollment.getStudent().getIdStudent(), enrollment.getCourse().getIdCourse());
+            return null;
+        } catch (EnrollmentRejectedException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void release(Enrollment enrollment) {
+        if (EnrollmentAdmission.holdsSeat(enrollment.getStatus())) {
+            enrollmentAdmission.unreserve(enrollment.getStudent().getIdStudent(), enrollment.getCourse().getIdCourse());
+        }
+    }
+
+    private void writeBatch(List<IndexedEnrollment> batch, Progress progress) {
+        try {
+            persist(batch, progress);
+            progress.imported += batch.size();
+            logger.debug("Imported batch of {} enrollments", batch.size());
+        } catch (DataAccessException | PersistenceException e) {
+            // Le lot est annulé : on rejoue ligne par ligne pour isoler les enregistrements fautifs
+            logger.warn("Batch of {} enrollments failed, retrying row by row: {}", batch.size(), rootMessage(e));
+            for (IndexedEnrollment row : batch) {
+                try {
+                    persist(List.of(row), progress);
+                    progress.imported++;
+                } catch (DataAccessException | PersistenceException rowError) {
+                    release(row.enrollment());
+                    progress.fail(row.index(), rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void persist(List<IndexedEnrollment> rows, Progress progress) {
+        batchTransaction.executeWithoutResult(status -> {
+            Map<Long, Integer> seats = new LinkedHashMap<>();
+            for (IndexedEnrollment row : rows) {
+                if (EnrollmentAdmission.holdsSeat(row.enrollment().getStatus())) {
+                    seats.merge(row.enrollment().getCourse().getIdCourse(), 1, Integer::sum);
+                }
+            }
+            // Une requête par cours du lot
+            seats.forEach(enrollmentAdmission::takeSeats);
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (IndexedEnrollment row : rows) {
+                Enrollment enrollment = toEntity(row.enrollment());
+                entityManager.persist(enrollment);
+                ids.add(enrollment.getIdEnrollment());
+            }
+            entityManager.flush();
+            entityManager.createQuery("select new tn.esprit.studentmanagement.dto.GradeSample(s.idStudent, c.idCourse, "
+                            + "d.idDepartment, e.grade, e.status) "
+                            + "from Enrollment e join e.course c join e.student s left join s.department d "
+                            + "where e.idEnrollment in :ids", GradeSample.class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(progress.onImported);
+            // Contexte vidé à chaque lot : la mémoire ne grossit pas avec la taille de l'import
+            entityManager.clear();
+        });
+    }
+
+    // Nouvelle instance à chaque tentative (un persist annulé laisse son id sur l'objet) ;
+    // étudiant et cours en simples références, sans SELECT : la clé étrangère est vérifiée par la base
+    private Enrollment toEntity(Enrollment record) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setEnrollmentDate(record.getEnrollmentDate());
+        enrollment.setGrade(record.getGrade());
+        enrollment.setStatus(record.getStatus());
+        enrollment.setStudent(entityManager.getReference(Student.class, record.getStudent().getIdStudent()));
+        enrollment.setCourse(entityManager.getReference(Course.class, record.getCourse().getIdCourse()));
+        return enrollment;
+    }
+
+    private static String rootMessage(Exception e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private record IndexedEnrollment(long index, Enrollment enrollment) {
+    }
+
+    private class Progress {
+        final Consumer<GradeSample> onImported;
+        long received;
+        long imported;
+        long failed;
+        final List<RecordFailure> failures = new ArrayList<>();
+
+        Progress(Consumer<GradeSample> onImported) {
+            this.onImported = onImported;
+        }
+
+        void fail(long index, String reason) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(new RecordFailure(index, reason));
+            }
+        }
+    }
+}
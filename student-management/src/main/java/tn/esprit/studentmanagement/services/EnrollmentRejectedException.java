@@ -0,0 +1,23 @@
+package tn.esprit.studentmanagement.services;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Inscription refusée par EnrollmentAdmission, avant tout accès à la base (409)
+public class EnrollmentRejectedException extends DataIntegrityViolationException {
+
+    public enum Reason {
+        ALREADY_ENROLLED,
+        COURSE_FULL
+    }
+
+    private final Reason reason;
+
+    public EnrollmentRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
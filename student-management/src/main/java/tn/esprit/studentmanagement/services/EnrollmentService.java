@@ -4,33 +4,108 @@ import lombok.AllArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.CompactEnrollmentList;
+import tn.esprit.studentmanagement.dto.EnrollmentGradeSample;
+import tn.esprit.studentmanagement.dto.EnrollmentExportRow;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.GradePost;
+import tn.esprit.studentmanagement.dto.GradeSample;
 import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.entities.Course;
 import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class EnrollmentService implements IEnrollment {
     @Autowired
     EnrollmentRepository enrollmentRepository;
+    @Autowired
+    EnrollmentBulkImporter enrollmentBulkImporter;
+    @Autowired
+    IGradeStatisticsService gradeStatisticsService;
+    @Autowired
+    CourseCatalog courseCatalog;
+    @Autowired
+    IStudentService studentService;
+    @Autowired
+    PartialUpdater partialUpdater;
+    @Autowired
+    RowExporter rowExporter;
+    @Autowired
+    EnrollmentAdmission enrollmentAdmission;
+    @Autowired
+    GradeWriteBehind gradeWriteBehind;
+
+    static final Set<String> PATCHABLE_FIELDS = Set.of("enrollmentDate", "grade", "status");
 
     private static final Logger logger = LogManager.getLogger(EnrollmentService.class);
 
+    // Un poste de statut à la fois : chacun relit l'état laissé par le précédent
+    private final ReentrantLock statusPosts = new ReentrantLock();
+
     @Override
+    @Transactional(readOnly = true)
     public List<Enrollment> getAllEnrollments() {
         logger.info("Fetching all enrollments");
         List<Enrollment> enrollments = enrollmentRepository.findAll();
         logger.debug("Found {} enrollments", enrollments == null ? 0 : enrollments.size());
-        return enrollments;
+        return enrollments == null ? null : gradeWriteBehind.withPending(enrollments);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CompactEnrollmentList getAllEnrollmentsCompact() {
+        logger.info("Fetching all enrollments (compact)");
+        CompactEnrollmentList list = CompactEnrollmentList.from(gradeWriteBehind.withPending(enrollmentRepository.findAll()));
+        logger.debug("Found {} enrollments, {} students, {} courses",
+                list.enrollments().size(), list.students().size(), list.courses().size());
+        return list;
+    }
+
+    // Export registrar : flux par curseur, jamais chargé en liste (voir getAllEnrollments)
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEnrollments(ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting enrollments as {}", format);
+        try (Stream<EnrollmentExportRow> rows = enrollmentRepository.streamAllForExport()) {
+            long count = rowExporter.export(rows, EnrollmentExportRow.class, format, out);
+            logger.info("Exported {} enrollments as {}", count, format);
+            return count;
+        }
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.ENROLLMENTS, key = "#idEnrollment")
+    @Transactional(readOnly = true)
     public Enrollment getEnrollmentById(Long idEnrollment) {
         logger.info("Fetching enrollment id={}", idEnrollment);
         try {
             Enrollment enrollment = enrollmentRepository.findById(idEnrollment)
                     .orElseThrow(() -> new RuntimeException("Enrollment not found: " + idEnrollment));
-            logger.debug("Found enrollment: {}", enrollment);
+            logger.debug("Found enrollment id={}", enrollment.getIdEnrollment());
             return enrollment;
         } catch (Exception e) {
             logger.error("Error fetching enrollment id={}", idEnrollment, e);
@@ -39,27 +114,233 @@ public class EnrollmentService implements IEnrollment {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#enrollment.idEnrollment", condition = "#enrollment.idEnrollment != null")
+    @Transactional
     public Enrollment saveEnrollment(Enrollment enrollment) {
-        logger.info("Saving enrollment: {}", enrollment);
+        logger.info("Saving enrollment id={}", enrollment.getIdEnrollment());
+        gradeWriteBehind.flushIfPending(enrollment.getIdEnrollment());
+        return write(enrollment);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#enrollment.idEnrollment", condition = "#enrollment.idEnrollment != null")
+    @Transactional
+    public Enrollment updateEnrollment(Enrollment enrollment, Long expectedVersion) {
+        Long id = enrollment.getIdEnrollment();
+        if (id == null) {
+            throw new BadRequestException("idEnrollment is required");
+        }
+        logger.info("Updating enrollment id={} expectedVersion={}", id, expectedVersion);
+        gradeWriteBehind.flushIfPending(id);
+        long currentVersion = enrollmentRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Enrollment not found: " + id));
+        PartialUpdater.checkVersion("Enrollment", id, expectedVersion, currentVersion);
+        enrollment.setVersion(currentVersion);
+        return write(enrollment);
+    }
+
+    // Note, statut ou date seulement : un UPDATE ciblé, statistiques et relevé ajustés comme pour un save
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#idEnrollment")
+    @Transactional
+    public long patchEnrollment(Long idEnrollment, Map<String, Object> changes, Long expectedVersion) {
+        logger.info("Patching enrollment id={} fields={} expectedVersion={}", idEnrollment, changes.keySet(), expectedVersion);
+        gradeWriteBehind.flushIfPending(idEnrollment);
+        GradeSample before = enrollmentRepository.findGradeSample(idEnrollment)
+                .orElseThrow(() -> new NoSuchElementException("Enrollment not found: " + idEnrollment));
+        if (partialUpdater.update(Enrollment.class, "idEnrollment", idEnrollment, expectedVersion, changes, PATCHABLE_FIELDS) == 0) {
+            throw new OptimisticLockingFailureException("Enrollment " + idEnrollment + " is no longer at version " + expectedVersion);
+        }
+        GradeSample after = enrollmentRepository.findGradeSample(idEnrollment).orElse(null);
+        if (after != null) {
+            // Réactivation refusée (cours plein) : l'exception annule la transaction, donc le PATCH
+            enrollmentAdmission.statusChanged(after.idStudent(), after.idCourse(), before.status(), after.status());
+        }
+        gradeStatisticsService.recordChange(before, after);
+        evictTranscripts(before, after);
+        return expectedVersion != null ? expectedVersion + 1 : enrollmentRepository.findVersionById(idEnrollment).orElseThrow();
+    }
+
+    private Enrollment write(Enrollment enrollment) {
+        resolveCourseByCode(enrollment);
         try {
+            GradeSample before = enrollment.getIdEnrollment() == null ? null
+                    : enrollmentRepository.findGradeSample(enrollment.getIdEnrollment()).orElse(null);
+            Long idStudent = enrollment.getStudent() == null ? null : enrollment.getStudent().getIdStudent();
+            Long idCourse = enrollment.getCourse() == null ? null : enrollment.getCourse().getIdCourse();
+            boolean samePair = before != null && Objects.equals(idStudent, before.idStudent())
+                    && Objects.equals(idCourse, before.idCourse());
+            boolean heldSeat = before != null && EnrollmentAdmission.holdsSeat(before.status());
+            boolean holdsSeat = idStudent != null && idCourse != null && EnrollmentAdmission.holdsSeat(enrollment.getStatus());
+            // Nouveau couple (étudiant, cours) ou réactivation : doublon et place vérifiés avant l'écriture,
+            // place rendue par admit() si la transaction est annulée
+            if (holdsSeat && !(samePair && heldSeat)) {
+                enrollmentAdmission.admit(idStudent, idCourse);
+            }
             Enrollment saved = enrollmentRepository.save(enrollment);
-            logger.info("Saved enrollment id={}", saved == null ? null : saved.getIdEnrollment());
+            // Contraintes vérifiées ici et non au commit : l'échec est rapporté par cette écriture
+            enrollmentRepository.flush();
+            // Ancien couple quitté, ou abandon / retrait : la place est rendue
+            if (heldSeat && !(samePair && holdsSeat)) {
+                enrollmentAdmission.release(before.idStudent(), before.idCourse());
+            }
+            logger.debug("Saved enrollment id={}", saved == null ? null : saved.getIdEnrollment());
+            // Relu en base : le corps de la requête ne porte souvent que les ids (pas le département de l'étudiant)
+            GradeSample after = saved == null || saved.getIdEnrollment() == null ? null
+                    : enrollmentRepository.findGradeSample(saved.getIdEnrollment()).orElse(null);
+            gradeStatisticsService.recordChange(before, after);
+            evictTranscripts(before, after);
             return saved;
+        } catch (EnrollmentRejectedException e) {
+            logger.info("Enrollment rejected: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            logger.error("Error saving enrollment: {}", enrollment, e);
+            logger.error("Error saving enrollment id={}", enrollment.getIdEnrollment(), e);
             throw e;
         }
     }
 
+    // Cours désigné par son code seul (ex. {"course": {"code": "CS101"}}) : résolu en mémoire
+    private void resolveCourseByCode(Enrollment enrollment) {
+        Course course = enrollment.getCourse();
+        if (course != null && course.getIdCourse() == null && course.getCode() != null) {
+            enrollment.setCourse(courseCatalog.findByCode(course.getCode())
+                    .orElseThrow(() -> new BadRequestException("Unknown course code: " + course.getCode())));
+        }
+    }
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#idEnrollment")
+    @Transactional
     public void deleteEnrollment(Long idEnrollment) {
         logger.info("Deleting enrollment id={}", idEnrollment);
         try {
+            gradeWriteBehind.flushIfPending(idEnrollment);
+            GradeSample before = enrollmentRepository.findGradeSample(idEnrollment).orElse(null);
             enrollmentRepository.deleteById(idEnrollment);
-            logger.info("Deleted enrollment id={}", idEnrollment);
+            if (before != null && EnrollmentAdmission.holdsSeat(before.status())) {
+                enrollmentAdmission.release(before.idStudent(), before.idCourse());
+            }
+            gradeStatisticsService.recordChange(before, null);
+            evictTranscripts(before, null);
+            logger.debug("Deleted enrollment id={}", idEnrollment);
         } catch (Exception e) {
             logger.error("Error deleting enrollment id={}", idEnrollment, e);
             throw e;
         }
     }
+
+    // Relevés des étudiants concernés (ancien et nouveau si l'inscription change d'étudiant), évincés
+    // au commit : évincé avant, un GET concurrent remettrait en cache le relevé d'avant l'écriture
+    private void evictTranscripts(GradeSample before, GradeSample after) {
+        if (before != null && before.idStudent() != null) {
+            afterCommit(() -> studentService.evictTranscript(before.idStudent()));
+        }
+        if (after != null && after.idStudent() != null
+                && (before == null || !after.idStudent().equals(before.idStudent()))) {
+            afterCommit(() -> studentService.evictTranscript(after.idStudent()));
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    // Notes de fin de semestre : journalisées puis écrites en base par lots (GradeWriteBehind),
+    // au lieu d'un save complet de l'inscription par note. Un changement de statut prend ou rend sa place
+    // dans cette transaction, avant la journalisation : cours plein -> 409 et rien n'est posté
+    @Override
+    @Transactional
+    public void postGrades(List<GradePost> grades) throws IOException {
+        if (grades == null || grades.isEmpty()) {
+            throw new BadRequestException("No grade to post");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (GradePost grade : grades) {
+            if (grade.idEnrollment() == null) {
+                throw new BadRequestException("idEnrollment is required");
+            }
+            if (grade.grade() == null && grade.status() == null) {
+                throw new BadRequestException("grade or status is required for enrollment " + grade.idEnrollment());
+            }
+            ids.add(grade.idEnrollment());
+        }
+        if (grades.stream().allMatch(grade -> grade.status() == null)) {
+            requireExisting(ids, new HashSet<>(enrollmentIds(ids)));
+            logger.info("Posting {} grades", grades.size());
+            gradeWriteBehind.post(grades);
+            return;
+        }
+        statusPosts.lock();
+        try {
+            // Statut en attente écrit d'abord : l'état relu en base est bien celui que le poste remplace
+            grades.stream().filter(grade -> grade.status() != null)
+                    .forEach(grade -> gradeWriteBehind.flushIfPending(grade.idEnrollment()));
+            admitStatusChanges(grades, currentSamples(ids));
+            logger.info("Posting {} grades with status changes", grades.size());
+            gradeWriteBehind.post(grades);
+        } finally {
+            statusPosts.unlock();
+        }
+    }
+
+    private List<Long> enrollmentIds(Set<Long> ids) {
+        List<Long> existing = new ArrayList<>();
+        for (List<Long> chunk : BulkDeleter.chunks(new ArrayList<>(ids))) {
+            existing.addAll(enrollmentRepository.findExistingIds(chunk));
+        }
+        return existing;
+    }
+
+    // État courant des inscriptions d'un poste de statut (étudiant, cours, statut)
+    private Map<Long, EnrollmentGradeSample> currentSamples(Set<Long> ids) {
+        Map<Long, EnrollmentGradeSample> samples = new HashMap<>();
+        for (List<Long> chunk : BulkDeleter.chunks(new ArrayList<>(ids))) {
+            enrollmentRepository.findGradeSamplesByIds(chunk).forEach(sample -> samples.put(sample.idEnrollment(), sample));
+        }
+        requireExisting(ids, samples.keySet());
+        return samples;
+    }
+
+    // Contrôlé avant d'acquitter : une note journalisée pour une inscription inconnue serait perdue sans bruit
+    private static void requireExisting(Set<Long> ids, Set<Long> existing) {
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(existing);
+        if (!missing.isEmpty()) {
+            throw new NoSuchElementException("Enrollments not found: " + missing);
+        }
+    }
+
+    // Postes dans l'ordre : plusieurs statuts pour une même inscription s'enchaînent
+    private void admitStatusChanges(List<GradePost> grades, Map<Long, EnrollmentGradeSample> current) {
+        Map<Long, Status> statuses = new HashMap<>();
+        for (GradePost grade : grades) {
+            if (grade.status() == null) {
+                continue;
+            }
+            EnrollmentGradeSample sample = current.get(grade.idEnrollment());
+            Status before = statuses.getOrDefault(grade.idEnrollment(), sample.status());
+            enrollmentAdmission.statusChanged(sample.idStudent(), sample.idCourse(), before, grade.status());
+            statuses.put(grade.idEnrollment(), grade.status());
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true)
+    public BulkImportReport importEnrollments(InputStream input) throws IOException {
+        logger.info("Importing enrollments in bulk");
+        // L'import persiste ses lots par l'EntityManager (références étudiant / cours, inserts en batch),
+        // sans passer par saveEnrollment : places réservées ligne à ligne par l'importeur, notes ajoutées
+        // aux statistiques au commit de chaque lot
+        return enrollmentBulkImporter.importEnrollments(input, sample -> gradeStatisticsService.recordChange(null, sample));
+    }
 }
@@ -0,0 +1,64 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.GradeStatistics;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Agrégat incrémental d'un groupe (un cours ou un département).
+// Les notes sont gardées en multi-ensemble trié : min/max restent exacts après une suppression.
+final class GradeAggregate {
+    private final double bucketWidth;
+    private long enrollments;
+    private long graded;
+    private double sum;
+    private final EnumMap<Status, Long> statusCounts = new EnumMap<>(Status.class);
+    private final TreeMap<Double, Long> grades = new TreeMap<>();
+    private final TreeMap<Long, Long> buckets = new TreeMap<>();
+
+    GradeAggregate(double bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    synchronized void add(GradeSample sample) {
+        apply(sample, 1);
+    }
+
+    synchronized void remove(GradeSample sample) {
+        apply(sample, -1);
+    }
+
+    private void apply(GradeSample sample, long delta) {
+        enrollments += delta;
+        if (sample.status() != null) {
+            adjust(statusCounts, sample.status(), delta);
+        }
+        Double grade = sample.grade();
+        if (grade != null) {
+            graded += delta;
+            sum += delta * grade;
+            adjust(grades, grade, delta);
+            adjust(buckets, (long) Math.floor(grade / bucketWidth), delta);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    synchronized GradeStatistics snapshot(String scope, Long id) {
+        List<GradeStatistics.Bucket> histogram = new ArrayList<>(buckets.size());
+        buckets.forEach((index, count) ->
+                histogram.add(new GradeStatistics.Bucket(index * bucketWidth, (index + 1) * bucketWidth, count)));
+        return new GradeStatistics(scope, id, enrollments, graded,
+                graded == 0 ? null : sum / graded,
+                grades.isEmpty() ? null : grades.firstKey(),
+                grades.isEmpty() ? null : grades.lastKey(),
+                new EnumMap<>(statusCounts), histogram);
+    }
+}
@@ -0,0 +1,124 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tn.esprit.studentmanagement.dto.GradePost;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Journal des notes en attente : segments NDJSON en ajout seul (grades-<n>.ndjson), chaque append forcé
+// sur disque avant de rendre la main. rotate() ferme le segment courant ; les segments ne sont supprimés
+// qu'une fois leurs notes écrites en base. Pas thread-safe : GradeWriteBehind sérialise les appels.
+final class GradeJournal implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(GradeJournal.class);
+    private static final String PREFIX = "grades-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Segment courant ; ouvert au premier append qui suit une rotation
+    private long segment;
+    private FileChannel channel;
+
+    GradeJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        // Jamais d'append derrière une ligne tronquée : on repart après le dernier segment existant
+        this.segment = segments().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+    }
+
+    // Notes des segments restants, dans l'ordre d'écriture. Une ligne illisible (arrêt brutal pendant
+    // un append, donc jamais acquittée) est ignorée.
+    List<GradePost> replay() throws IOException {
+        List<GradePost> posts = new ArrayList<>();
+        for (long number : segments()) {
+            for (String line : Files.readAllLines(path(number), StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    posts.add(objectMapper.readValue(line, GradePost.class));
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping unreadable line in grade journal segment {}: {}", path(number), e.getOriginalMessage());
+                }
+            }
+        }
+        return posts;
+    }
+
+    void append(Collection<GradePost> posts) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (GradePost post : posts) {
+            lines.append(objectMapper.writeValueAsString(post)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Écriture partielle possible : le segment est abandonné pour que l'append suivant commence une ligne propre
+            rotate();
+            throw e;
+        }
+    }
+
+    // Ferme le segment courant et retourne son numéro : tout ce qui a été journalisé jusqu'ici
+    // est dans les segments <= ce numéro
+    long rotate() throws IOException {
+        FileChannel current = channel;
+        channel = null;
+        long closed = segment++;
+        if (current != null) {
+            current.close();
+        }
+        return closed;
+    }
+
+    void deleteUpTo(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= number) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + String.format("%010d", number) + SUFFIX);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
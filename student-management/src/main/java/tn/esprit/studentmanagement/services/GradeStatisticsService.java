@@ -0,0 +1,266 @@
+package tn.esprit.studentmanagement.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.GradeStatistics;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Statistiques de notes par cours et par département, tenues en mémoire.
+// Lecture en O(1) (hors histogramme) ; EnrollmentService les met à jour à chaque écriture validée,
+// rebuild() les recalcule en un seul parcours de la table enrollment.
+@Service
+public class GradeStatisticsService implements IGradeStatisticsService {
+    static final String COURSE = "course";
+    static final String DEPARTMENT = "department";
+
+    @Autowired
+    EnrollmentRepository enrollmentRepository;
+    @Value("${app.stats.histogram-bucket-width:1}")
+    double bucketWidth = 1;
+    @Value("${app.stats.rebuild-on-startup:true}")
+    boolean rebuildOnStartup;
+
+    private static final Logger logger = LogManager.getLogger(GradeStatisticsService.class);
+
+    // Remplacé en bloc par rebuild() : les lecteurs voient l'ancien ou le nouvel état, jamais un mélange
+    private volatile Aggregates aggregates = new Aggregates();
+    // changeLock : changement appliqué et, pendant un rebuild, mis de côté (duringRebuild) sans croiser
+    // le remplacement de l'état ; rebuildLock : un rebuild à la fois
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private List<GradeSample[]> duringRebuild;
+    // Tenu en partage par une transaction de beforeCommit à afterCompletion, en exclusif par rebuild() le temps
+    // de fixer son instantané : chaque commit tombe soit dans l'instantané, soit dans duringRebuild
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    // Changements de la transaction en cours, appliqués ensemble après son commit
+    private final Object pendingKey = new Object();
+
+    private record Aggregates(Map<Long, GradeAggregate> byCourse, Map<Long, GradeAggregate> byDepartment) {
+        Aggregates() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public GradeStatistics getCourseStatistics(Long idCourse) {
+        return snapshot(aggregates.byCourse(), COURSE, idCourse);
+    }
+
+    @Override
+    public GradeStatistics getDepartmentStatistics(Long idDepartment) {
+        return snapshot(aggregates.byDepartment(), DEPARTMENT, idDepartment);
+    }
+
+    @Override
+    public List<GradeStatistics> getAllCourseStatistics() {
+        return snapshots(aggregates.byCourse(), COURSE);
+    }
+
+    @Override
+    public List<GradeStatistics> getAllDepartmentStatistics() {
+        return snapshots(aggregates.byDepartment(), DEPARTMENT);
+    }
+
+    // before/after : état de l'inscription avant et après l'écriture (null si elle n'existait pas / plus).
+    // Dans une transaction, appliqué après son commit seulement : un rollback ne laisse rien
+    @Override
+    public void recordChange(GradeSample before, GradeSample after) {
+        GradeSample[] change = {before, after};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyCommitted(List.<GradeSample[]>of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<GradeSample[]> pending = (List<GradeSample[]>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            List<GradeSample[]> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(pendingKey, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean gated;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitGate.readLock().lock();
+                    gated = true;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            applyCommitted(changes);
+                        }
+                    } finally {
+                        if (gated) {
+                            commitGate.readLock().unlock();
+                        }
+                    }
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    private void applyCommitted(List<GradeSample[]> changes) {
+        changeLock.lock();
+        try {
+            if (duringRebuild != null) {
+                duringRebuild.addAll(changes);
+            }
+            changes.forEach(change -> apply(aggregates, change[0], change[1]));
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private void apply(Aggregates target, GradeSample before, GradeSample after) {
+        if (before != null) {
+            apply(target, before, false);
+        }
+        if (after != null) {
+            apply(target, after, true);
+        }
+    }
+
+    // Le département d'une note est celui de l'étudiant : ses inscriptions passent d'un agrégat à l'autre
+    @Override
+    public void moveStudent(Long idStudent, Long fromDepartment, Long toDepartment) {
+        if (Objects.equals(fromDepartment, toDepartment)) {
+            return;
+        }
+        List<GradeSample> samples = enrollmentRepository.findGradeSamplesByStudent(idStudent);
+        for (GradeSample sample : samples) {
+            recordChange(withDepartment(sample, fromDepartment), withDepartment(sample, toDepartment));
+        }
+        logger.debug("Moved {} enrollments of student id={} from department {} to {}",
+                samples.size(), idStudent, fromDepartment, toDepartment);
+    }
+
+    private static GradeSample withDepartment(GradeSample sample, Long idDepartment) {
+        return new GradeSample(sample.idStudent(), sample.idCourse(), idDepartment, sample.grade(), sample.status());
+    }
+
+    // Parcours dans un instantané de la base (REPEATABLE READ) ; les changements validés après l'instantané,
+    // absents de celui-ci, sont rejoués sur le nouvel état avant qu'il remplace l'ancien.
+    // Pas readOnly : l'instantané doit être pris sur le primaire, que les commits des écrivains atteignent
+    // sans retard, et non sur la réplique
+    @Override
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public long rebuild() {
+        rebuildLock.lock();
+        try {
+            logger.info("Rebuilding grade statistics");
+            // Aucun commit en cours : la première lecture fixe l'instantané, puis seuls les commits
+            // suivants sont mis de côté
+            commitGate.writeLock().lock();
+            try {
+                enrollmentRepository.count();
+                changeLock.lock();
+                try {
+                    duringRebuild = new ArrayList<>();
+                } finally {
+                    changeLock.unlock();
+                }
+            } finally {
+                commitGate.writeLock().unlock();
+            }
+            Aggregates fresh = new Aggregates();
+            long count = 0;
+            try (Stream<GradeSample> samples = enrollmentRepository.streamAllGradeSamples()) {
+                Iterator<GradeSample> it = samples.iterator();
+                while (it.hasNext()) {
+                    apply(fresh, it.next(), true);
+                    count++;
+                }
+            }
+            int replayed;
+            changeLock.lock();
+            try {
+                replayed = duringRebuild.size();
+                duringRebuild.forEach(change -> apply(fresh, change[0], change[1]));
+                aggregates = fresh;
+            } finally {
+                changeLock.unlock();
+            }
+            logger.info("Grade statistics rebuilt from {} enrollments and {} concurrent changes ({} courses, {} departments)",
+                    count, replayed, fresh.byCourse().size(), fresh.byDepartment().size());
+            return count;
+        } finally {
+            // Échec du parcours : l'état courant reste en place, plus rien à mettre de côté
+            stopRecording();
+            rebuildLock.unlock();
+        }
+    }
+
+    private void stopRecording() {
+        changeLock.lock();
+        try {
+            duringRebuild = null;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    // Appelé via le proxy Spring : la transaction (nécessaire au Stream) couvre rebuild().
+    // Les écritures servies pendant ce parcours sont rejouées (voir rebuild) ; la readiness
+    // (ACCEPTING_TRAFFIC) n'est publiée qu'après les listeners d'ApplicationReadyEvent
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    private void apply(Aggregates target, GradeSample sample, boolean add) {
+        if (sample.idCourse() != null) {
+            apply(target.byCourse().computeIfAbsent(sample.idCourse(), id -> new GradeAggregate(bucketWidth)), sample, add);
+        }
+        if (sample.idDepartment() != null) {
+            apply(target.byDepartment().computeIfAbsent(sample.idDepartment(), id -> new GradeAggregate(bucketWidth)), sample, add);
+        }
+    }
+
+    private static void apply(GradeAggregate aggregate, GradeSample sample, boolean add) {
+        if (add) {
+            aggregate.add(sample);
+        } else {
+            aggregate.remove(sample);
+        }
+    }
+
+    private GradeStatistics snapshot(Map<Long, GradeAggregate> groups, String scope, Long id) {
+        GradeAggregate aggregate = groups.get(id);
+        return aggregate == null ? new GradeAggregate(bucketWidth).snapshot(scope, id) : aggregate.snapshot(scope, id);
+    }
+
+    private static List<GradeStatistics> snapshots(Map<Long, GradeAggregate> groups, String scope) {
+        return groups.entrySet().stream()
+                .map(e -> e.getValue().snapshot(scope, e.getKey()))
+                .sorted(Comparator.comparing(GradeStatistics::id))
+                .toList();
+    }
+}
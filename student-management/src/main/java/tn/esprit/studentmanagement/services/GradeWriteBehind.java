@@ -0,0 +1,256 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.EnrollmentGradeSample;
+import tn.esprit.studentmanagement.dto.GradePost;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Notes en écriture différée : un poste est acquitté une fois journalisé sur disque (GradeJournal),
+// regroupé en mémoire par inscription (le plus récent l'emporte) puis écrit en base par lots d'UPDATE JDBC,
+// toutes les flush-interval ou dès flush-size inscriptions en attente. Les lectures d'inscriptions
+// superposent les notes en attente (withPending) ; relevés et statistiques suivent à l'écriture en base.
+// Au démarrage, les segments restants du journal (arrêt brutal) sont rejoués.
+// Les places d'un changement de statut sont prises ou rendues à l'acquittement (EnrollmentService.postGrades),
+// pas à l'écriture en base.
+@Component
+public class GradeWriteBehind implements AutoCloseable {
+    static final String UPDATE_SQL = "update enrollment set grade = coalesce(?, grade), status = coalesce(?, status), "
+            + "version = version + 1 where id_enrollment = ?";
+    private static final int[] UPDATE_TYPES = {Types.DOUBLE, Types.VARCHAR, Types.BIGINT};
+
+    private static final Logger logger = LogManager.getLogger(GradeWriteBehind.class);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IGradeStatisticsService gradeStatisticsService;
+    private final IStudentService studentService;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ResourceVersionTracker versionTracker;
+    private final int flushSize;
+    private final Path journalDirectory;
+    private final GradeJournal journal;
+    private final ConcurrentMap<Long, GradePost> pending = new ConcurrentHashMap<>();
+    // appendLock : journal et file d'attente modifiés ensemble ; flushLock : une écriture en base à la fois
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Counter posted;
+    private final Counter flushed;
+    private final Counter flushFailures;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "grade-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GradeWriteBehind(EnrollmentRepository enrollmentRepository, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, IGradeStatisticsService gradeStatisticsService,
+                            IStudentService studentService, ObjectProvider<CacheManager> cacheManager,
+                            ResourceVersionTracker versionTracker, MeterRegistry meterRegistry,
+                            @Value("${app.grades.write-behind.journal-dir:data/grade-journal}") Path journalDirectory,
+                            @Value("${app.grades.write-behind.flush-interval:2s}") Duration flushInterval,
+                            @Value("${app.grades.write-behind.flush-size:500}") int flushSize) throws IOException {
+        this.enrollmentRepository = enrollmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Appelé aussi depuis une écriture transactionnelle (flushIfPending) : les notes sont commitées
+        // à part, avant que le journal ne soit purgé, même si l'écriture appelante est annulée
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.studentService = studentService;
+        this.cacheManager = cacheManager;
+        this.versionTracker = versionTracker;
+        this.flushSize = flushSize;
+        this.journalDirectory = journalDirectory;
+        this.journal = new GradeJournal(journalDirectory);
+        this.posted = Counter.builder("grades.write_behind.posted").register(meterRegistry);
+        this.flushed = Counter.builder("grades.write_behind.flushed").register(meterRegistry);
+        this.flushFailures = Counter.builder("grades.write_behind.flush.failures").register(meterRegistry);
+        Gauge.builder("grades.write_behind.pending", pending, Map::size).register(meterRegistry);
+
+        journal.replay().forEach(this::enqueue);
+        if (!pending.isEmpty()) {
+            logger.info("Replayed {} pending grades from journal {}", pending.size(), journalDirectory);
+        }
+        logger.info("Grade write-behind: journal={}, flushInterval={}, flushSize={}", journalDirectory, flushInterval, flushSize);
+        long intervalMillis = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::flushInBackground, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Rend la main une fois les postes sur disque : ils survivent à un arrêt brutal
+    public void post(List<GradePost> posts) throws IOException {
+        appendLock.lock();
+        try {
+            journal.append(posts);
+            posts.forEach(this::enqueue);
+        } finally {
+            appendLock.unlock();
+        }
+        posted.increment(posts.size());
+        versionTracker.changed(Resource.ENROLLMENT);
+        if (pending.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flushInBackground);
+        }
+    }
+
+    private void enqueue(GradePost post) {
+        pending.merge(post.idEnrollment(), post, GradePost::mergedWith);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    // Copie de l'inscription avec sa note en attente (l'instance reçue peut venir du cache, elle n'est pas modifiée).
+    // Version annoncée : celle qu'aura la ligne après l'écriture en base, qu'un PUT / PATCH avec If-Match déclenche
+    public Enrollment withPending(Enrollment enrollment) {
+        GradePost post = enrollment == null || enrollment.getIdEnrollment() == null ? null
+                : pending.get(enrollment.getIdEnrollment());
+        if (post == null) {
+            return enrollment;
+        }
+        return new Enrollment(enrollment.getIdEnrollment(), enrollment.getEnrollmentDate(),
+                post.grade() != null ? post.grade() : enrollment.getGrade(),
+                post.status() != null ? post.status() : enrollment.getStatus(),
+                enrollment.getVersion() + 1, enrollment.getStudent(), enrollment.getCourse());
+    }
+
+    public List<Enrollment> withPending(List<Enrollment> enrollments) {
+        return pending.isEmpty() ? enrollments : enrollments.stream().map(this::withPending).toList();
+    }
+
+    // Avant une écriture directe de l'inscription (PUT, PATCH, DELETE) : sa note en attente ne doit pas
+    // l'écraser plus tard
+    public void flushIfPending(Long idEnrollment) {
+        if (idEnrollment != null && pending.containsKey(idEnrollment)) {
+            flush();
+        }
+    }
+
+    // Écrit toutes les notes en attente en une transaction et retourne leur nombre. En cas d'échec,
+    // elles restent en attente et dans le journal pour la tentative suivante.
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<Long, GradePost> batch;
+            long lastSegment;
+            appendLock.lock();
+            try {
+                batch = new HashMap<>(pending);
+                lastSegment = journal.rotate();
+            } finally {
+                appendLock.unlock();
+            }
+            if (!batch.isEmpty()) {
+                List<EnrollmentGradeSample> before = transactionTemplate.execute(status -> {
+                    List<EnrollmentGradeSample> written = write(batch);
+                    // Dans la transaction : statistiques ajustées à son commit (voir recordChange)
+                    written.forEach(sample -> gradeStatisticsService.recordChange(sample.sample(),
+                            sample.with(batch.get(sample.idEnrollment()))));
+                    return written;
+                });
+                applied(before);
+            }
+            journal.deleteUpTo(lastSegment);
+            // Un poste arrivé pendant l'écriture a remplacé l'entrée : il reste en attente
+            batch.forEach(pending::remove);
+            flushed.increment(batch.size());
+            if (!batch.isEmpty()) {
+                logger.debug("Flushed {} grades, {} still pending", batch.size(), pending.size());
+            }
+            return batch.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushInBackground() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            logger.warn("Grade flush failed, {} grades still pending: {}", pending.size(), e.getMessage());
+            logger.debug("Grade flush failed", e);
+        }
+    }
+
+    // Inscriptions supprimées depuis le poste : pas de ligne, pas d'UPDATE
+    private List<EnrollmentGradeSample> write(Map<Long, GradePost> batch) {
+        List<EnrollmentGradeSample> before = new ArrayList<>();
+        for (List<Long> chunk : BulkDeleter.chunks(new ArrayList<>(batch.keySet()))) {
+            List<EnrollmentGradeSample> samples = enrollmentRepository.findGradeSamplesByIds(chunk);
+            List<Object[]> rows = new ArrayList<>(samples.size());
+            for (EnrollmentGradeSample sample : samples) {
+                GradePost post = batch.get(sample.idEnrollment());
+                rows.add(new Object[]{post.grade(), post.status() == null ? null : post.status().name(), post.idEnrollment()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows, UPDATE_TYPES);
+            before.addAll(samples);
+        }
+        return before;
+    }
+
+    // UPDATE JDBC : ni listeners JPA ni @CacheEvict, caches et étiquettes tenus ici
+    private void applied(List<EnrollmentGradeSample> before) {
+        CacheManager caches = cacheManager.getIfAvailable();
+        Cache enrollments = caches == null ? null : caches.getCache(CacheConfig.ENROLLMENTS);
+        for (EnrollmentGradeSample sample : before) {
+            if (sample.idStudent() != null) {
+                studentService.evictTranscript(sample.idStudent());
+            }
+            if (enrollments != null) {
+                enrollments.evict(sample.idEnrollment());
+            }
+        }
+        versionTracker.changed(Resource.ENROLLMENT);
+    }
+
+    // Arrêt normal : dernière écriture en base ; si elle échoue, le journal sera rejoué au prochain démarrage
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Final grade flush failed, {} grades left in journal {}: {}", pending.size(), journalDirectory, e.getMessage());
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+
+import java.util.List;
+
+public interface ICourseService {
+    public List<Course> getAllCourses();
+    public PageResponse<Course> getCoursesPage(int page, Integer size);
+    public Course getCourseById(Long idCourse);
+    public Course getCourseByCode(String code);
+    public Course saveCourse(Course course);
+    public void deleteCourse(Long idCourse);
+}
@@ -1,13 +1,24 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
 import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.entities.Student;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IDepartmentService {
     public List<Department> getAllDepartments();
     public Department getDepartmentById(Long idDepartment);
+    public List<DepartmentSummary> getAllDepartmentSummaries();
+    public DepartmentSummary getDepartmentSummary(Long idDepartment);
+    public CursorPage<Student> getDepartmentStudents(Long idDepartment, String cursor, Integer size);
     public Department saveDepartment(Department department);
+    public Department updateDepartment(Department department, Long expectedVersion);
+    public long patchDepartment(Long idDepartment, Map<String, Object> changes, Long expectedVersion);
     public void deleteDepartment(Long idDepartment);
+    public BulkDeleteReport deleteDepartments(DepartmentBulkDelete request);
 }
@@ -1,13 +1,27 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.CompactEnrollmentList;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.GradePost;
 import tn.esprit.studentmanagement.entities.Enrollment;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 public interface IEnrollment {
     public List<Enrollment> getAllEnrollments();
+    public CompactEnrollmentList getAllEnrollmentsCompact();
     public Enrollment getEnrollmentById(Long idEnrollment);
     public Enrollment saveEnrollment(Enrollment enrollment);
+    public Enrollment updateEnrollment(Enrollment enrollment, Long expectedVersion);
+    public long patchEnrollment(Long idEnrollment, Map<String, Object> changes, Long expectedVersion);
     public void deleteEnrollment(Long idEnrollment);
+    public void postGrades(List<GradePost> grades) throws IOException;
+    public BulkImportReport importEnrollments(InputStream input) throws IOException;
+    public long exportEnrollments(ExportFormat format, OutputStream out) throws IOException;
 
 }
@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.GradeStatistics;
+
+import java.util.List;
+
+public interface IGradeStatisticsService {
+    public GradeStatistics getCourseStatistics(Long idCourse);
+    public GradeStatistics getDepartmentStatistics(Long idDepartment);
+    public List<GradeStatistics> getAllCourseStatistics();
+    public List<GradeStatistics> getAllDepartmentStatistics();
+    public void recordChange(GradeSample before, GradeSample after);
+    public void moveStudent(Long idStudent, Long fromDepartment, Long toDepartment);
+    public long rebuild();
+}
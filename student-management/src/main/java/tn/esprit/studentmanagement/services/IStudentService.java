@@ -1,12 +1,37 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CompactStudentList;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.dto.StudentBulkDelete;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
 import tn.esprit.studentmanagement.entities.Student;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 public interface IStudentService {
     public List<Student> getAllStudents();
+    public CompactStudentList getAllStudentsCompact();
     public Student getStudentById(Long id);
     public Student saveStudent(Student student);
+    public Student updateStudent(Student student, Long expectedVersion);
+    public long patchStudent(Long id, Map<String, Object> changes, Long expectedVersion);
     public void deleteStudent(Long id);
+    public BulkDeleteReport deleteStudents(StudentBulkDelete request);
+    public CursorPage<Student> getStudentsPage(String cursor, Integer size);
+    public List<StudentSummary> getStudentsSummary();
+    public List<StudentWithDepartment> getStudentsWithDepartment();
+    public List<StudentTranscript> getStudentsTranscript();
+    public long exportStudents(ExportFormat format, OutputStream out) throws IOException;
+    public StudentTranscript getStudentTranscript(Long id);
+    public void evictTranscript(Long id);
+    public PageResponse<Student> searchStudents(StudentSearchCriteria criteria, int page, Integer size, String sort);
 }
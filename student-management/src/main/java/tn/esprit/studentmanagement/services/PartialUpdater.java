@@ -0,0 +1,120 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+
+// Mises à jour partielles (PATCH) : un seul UPDATE des colonnes reçues, sans relire l'entité.
+// La version est incrémentée dans le même ordre et sert de condition quand le client envoie If-Match.
+@Component
+public class PartialUpdater {
+    static final String VERSION = "version";
+
+    private static final Logger logger = LogManager.getLogger(PartialUpdater.class);
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersionTracker versionTracker;
+
+    public PartialUpdater(EntityManager entityManager, ObjectMapper objectMapper, ResourceVersionTracker versionTracker) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.versionTracker = versionTracker;
+    }
+
+    // Nombre de lignes modifiées : 0 si l'id n'existe pas ou si la version attendue n'est plus la bonne
+    @Transactional
+    public <T> int update(Class<T> type, String idAttribute, Object id, Long expectedVersion,
+                          Map<String, ?> changes, Set<String> updatableFields) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("No field to update");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        EntityType<T> entity = entityManager.getMetamodel().entity(type);
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+        changes.forEach((name, value) -> {
+            if (!updatableFields.contains(name)) {
+                throw new BadRequestException("Field cannot be updated: " + name);
+            }
+            SingularAttribute<? super T, ?> attribute = entity.getSingularAttribute(name);
+            set(update, cb, root.get(name), attribute, value);
+        });
+        Path<Long> version = root.get(VERSION);
+        update.set(version, cb.sum(version, 1L));
+        Predicate where = cb.equal(root.get(idAttribute), id);
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(version, expectedVersion));
+        }
+        update.where(where);
+        int rows = entityManager.createQuery(update).executeUpdate();
+        // Un UPDATE en masse ne passe pas par les listeners JPA
+        if (rows > 0) {
+            versionTracker.changed(ResourceVersionTracker.resourceOf(type));
+        }
+        logger.debug("Partial update of {} id={} fields={} expectedVersion={}: {} row(s)",
+                type.getSimpleName(), id, changes.keySet(), expectedVersion, rows);
+        return rows;
+    }
+
+    // If-Match absent : pas de condition, la dernière écriture l'emporte comme avant
+    public static void checkVersion(String entity, Object id, Long expectedVersion, long currentVersion) {
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            throw new OptimisticLockingFailureException(
+                    entity + " " + id + " is at version " + currentVersion + ", not " + expectedVersion);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void set(CriteriaUpdate<T> update, CriteriaBuilder cb, Path<?> path,
+                         SingularAttribute<? super T, ?> attribute, Object value) {
+        // null explicite (ex. {"department": null}) : littéral typé, Hibernate refuse une valeur null nue
+        if (value == null) {
+            update.<Object>set((Path<Object>) path, (Expression<Object>) cb.nullLiteral(attribute.getJavaType()));
+            return;
+        }
+        Object converted;
+        if (attribute.isAssociation()) {
+            converted = reference(attribute, value);
+        } else {
+            converted = convert(attribute.getName(), value, attribute.getJavaType());
+        }
+        update.set((Path<Object>) path, converted);
+    }
+
+    // @ManyToOne : {"idDepartment": 3} ou directement 3 ; seule la clé étrangère est écrite
+    private Object reference(SingularAttribute<?, ?> attribute, Object value) {
+        EntityType<?> target = entityManager.getMetamodel().entity(attribute.getJavaType());
+        SingularAttribute<?, ?> targetId = target.getId(target.getIdType().getJavaType());
+        Object idValue = value instanceof Map<?, ?> map ? map.get(targetId.getName()) : value;
+        if (idValue == null) {
+            throw new BadRequestException("Missing " + attribute.getName() + "." + targetId.getName());
+        }
+        return entityManager.getReference(attribute.getJavaType(),
+                convert(attribute.getName() + "." + targetId.getName(), idValue, targetId.getJavaType()));
+    }
+
+    // Valeur du client de mauvais type (ex. {"grade": "abc"}) : 400 sans le message de Jackson
+    private Object convert(String field, Object value, Class<?> type) {
+        try {
+            return objectMapper.convertValue(value, type);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid value for " + field, e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Listener JPA des entités suivies : instancié par Hibernate via le conteneur Spring.
+// Sans ResourceVersionTracker dans le contexte (tests @DataJpaTest), il ne fait rien.
+public class ResourceChangeListener {
+    private final ObjectProvider<ResourceVersionTracker> versionTracker;
+
+    public ResourceChangeListener(ObjectProvider<ResourceVersionTracker> versionTracker) {
+        this.versionTracker = versionTracker;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        versionTracker.ifAvailable(tracker -> tracker.changed(ResourceVersionTracker.resourceOf(entity.getClass())));
+    }
+}
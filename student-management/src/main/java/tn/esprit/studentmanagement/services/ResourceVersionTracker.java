@@ -0,0 +1,116 @@
+package tn.esprit.studentmanagement.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Génération et date de dernière écriture par type de ressource, avancées après chaque commit.
+// Sert à répondre 304 aux GET conditionnels sans requête SQL ni sérialisation.
+// État propre à l'instance : un redémarrage change le préfixe des ETags, et les écritures reçues par une autre
+// instance ne l'avancent pas (elle continuerait à répondre 304). Réservé à un déploiement à une seule instance.
+public class ResourceVersionTracker {
+    private static final Logger logger = LogManager.getLogger(ResourceVersionTracker.class);
+
+    // Une vue dépend de sa ressource et de celles qu'elle embarque dans son JSON
+    public enum Resource {
+        DEPARTMENT,
+        COURSE,
+        STUDENT(DEPARTMENT),
+        ENROLLMENT(STUDENT, DEPARTMENT, COURSE),
+        TRANSCRIPT(STUDENT, DEPARTMENT, ENROLLMENT, COURSE);
+
+        private final Set<Resource> embedded;
+
+        Resource(Resource... embedded) {
+            this.embedded = Set.of(embedded);
+        }
+
+        Set<Resource> closure() {
+            EnumSet<Resource> closure = EnumSet.of(this);
+            closure.addAll(embedded);
+            return closure;
+        }
+    }
+
+    private static final Map<Class<?>, Resource> ENTITY_RESOURCES = Map.of(
+            Department.class, Resource.DEPARTMENT,
+            Course.class, Resource.COURSE,
+            Student.class, Resource.STUDENT,
+            Enrollment.class, Resource.ENROLLMENT);
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray generations = new AtomicLongArray(Resource.values().length);
+    private final AtomicLongArray lastModified = new AtomicLongArray(Resource.values().length);
+
+    public ResourceVersionTracker() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < lastModified.length(); i++) {
+            lastModified.set(i, now);
+        }
+    }
+
+    public static Resource resourceOf(Class<?> entityType) {
+        Resource resource = ENTITY_RESOURCES.get(entityType);
+        if (resource == null) {
+            throw new IllegalArgumentException("Untracked entity type: " + entityType.getName());
+        }
+        return resource;
+    }
+
+    // Dans une transaction : appliqué une seule fois par ressource, après le commit (ou le rollback).
+    // Avant le commit, un lecteur verrait encore l'ancien état sous la nouvelle étiquette.
+    public void changed(Resource resource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(resource);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Resource> pending = (Set<Resource>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Resource> changes = EnumSet.noneOf(Resource.class);
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersionTracker.this);
+                    changes.forEach(ResourceVersionTracker.this::bump);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(resource);
+    }
+
+    // Valeur opaque, change dès qu'une ressource de la vue est modifiée
+    public String tag(Resource view) {
+        StringBuilder tag = new StringBuilder(bootId);
+        for (Resource resource : view.closure()) {
+            tag.append('.').append(generations.get(resource.ordinal()));
+        }
+        return tag.toString();
+    }
+
+    public long lastModified(Resource view) {
+        long max = 0;
+        for (Resource resource : view.closure()) {
+            max = Math.max(max, lastModified.get(resource.ordinal()));
+        }
+        return max;
+    }
+
+    private void bump(Resource resource) {
+        long generation = generations.incrementAndGet(resource.ordinal());
+        lastModified.accumulateAndGet(resource.ordinal(), System.currentTimeMillis(), Math::max);
+        logger.debug("{} changed, generation {}", resource, generation);
+    }
+}
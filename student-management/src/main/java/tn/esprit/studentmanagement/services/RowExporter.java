@@ -0,0 +1,101 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Écrit un flux de records ligne par ligne (CSV avec en-tête ou NDJSON) : rien n'est accumulé en mémoire,
+// la sortie est vidée tous les FLUSH_EVERY enregistrements.
+@Component
+public class RowExporter {
+    static final int FLUSH_EVERY = 1000;
+
+    private final ObjectWriter jsonWriter;
+
+    public RowExporter(ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public <T extends Record> long export(Stream<T> rows, Class<T> type, ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> writeCsv(rows, type, out);
+            case NDJSON -> writeNdjson(rows, out);
+        };
+    }
+
+    private <T extends Record> long writeCsv(Stream<T> rows, Class<T> type, OutputStream out) throws IOException {
+        RecordComponent[] columns = type.getRecordComponents();
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (int i = 0; i < columns.length; i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(columns[i].getName());
+        }
+        writer.write("\r\n");
+        long count = 0;
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, value(columns[i], row));
+            }
+            writer.write("\r\n");
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<?> it = rows.iterator();
+            while (it.hasNext()) {
+                jsonWriter.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    // RFC 4180 : guillemets si virgule, guillemet ou fin de ligne ; guillemets internes doublés
+    static void writeCsvField(Appendable writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.append(text);
+            return;
+        }
+        writer.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static Object value(RecordComponent column, Record row) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + column.getName() + " of " + row.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -2,21 +2,63 @@ package tn.esprit.studentmanagement.services;
 
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CompactStudentList;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.dto.StudentBulkDelete;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.repositories.StudentSpecifications;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class StudentService implements IStudentService {
     private static final Logger logger = LogManager.getLogger(StudentService.class);
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    // Tri limité aux colonnes indexées
+    static final Set<String> SORTABLE_FIELDS = Set.of("idStudent", "lastName", "firstName", "email", "dateOfBirth");
+    static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "email", "phone", "dateOfBirth", "address", "department");
 
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private PartialUpdater partialUpdater;
+    @Autowired
+    private IGradeStatisticsService gradeStatisticsService;
+    @Autowired
+    private RowExporter rowExporter;
+    @Autowired
+    private BulkDeleter bulkDeleter;
+    @Autowired
+    private EnrollmentAdmission enrollmentAdmission;
 
+    @Transactional(readOnly = true)
     public List<Student> getAllStudents() {
         logger.info("Fetching all students");
         List<Student> list = studentRepository.findAll();
@@ -24,11 +66,13 @@ public class StudentService implements IStudentService {
         return list;
     }
 
+    @Cacheable(cacheNames = CacheConfig.STUDENTS, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     public Student getStudentById(Long id) {
         logger.info("Fetching student id={}", id);
         try {
             Student s = studentRepository.findById(id).orElse(null);
-            logger.debug("Found student: {}", s);
+            logger.debug("Found student id={}", s == null ? null : s.getIdStudent());
             return s;
         } catch (Exception e) {
             logger.error("Error fetching student id={}", id, e);
@@ -36,22 +80,90 @@ public class StudentService implements IStudentService {
         }
     }
 
+    // Les inscriptions en cache embarquent l'étudiant : on les invalide aussi,
+    // comme les résumés de département, qui comptent les étudiants
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#student.idStudent", condition = "#student.idStudent != null"),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, key = "#student.idStudent", condition = "#student.idStudent != null"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true)
+    })
+    @Transactional
     public Student saveStudent(Student student) {
-        logger.info("Saving student: {}", student);
+        logger.info("Saving student id={}", student.getIdStudent());
         try {
             Student saved = studentRepository.save(student);
             logger.debug("Saved student id={}", saved == null ? "null" : saved.getIdStudent());
             return saved;
         } catch (Exception e) {
-            logger.error("Error saving student: {}", student, e);
+            logger.error("Error saving student id={}", student.getIdStudent(), e);
             throw e;
         }
     }
 
+    // PUT : remplace l'étudiant entier ; expectedVersion (If-Match) null = sans condition.
+    // Lecture de la version, contrôle et save dans la même transaction (sur le primaire)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#student.idStudent", condition = "#student.idStudent != null"),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, key = "#student.idStudent", condition = "#student.idStudent != null"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true)
+    })
+    @Transactional
+    public Student updateStudent(Student student, Long expectedVersion) {
+        Long id = student.getIdStudent();
+        if (id == null) {
+            throw new BadRequestException("idStudent is required");
+        }
+        logger.info("Updating student id={} expectedVersion={}", id, expectedVersion);
+        long currentVersion = studentRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Student not found: " + id));
+        PartialUpdater.checkVersion("Student", id, expectedVersion, currentVersion);
+        Long departmentBefore = studentRepository.findDepartmentIdById(id).orElse(null);
+        // Le merge compare cette version à celle de la ligne : une écriture concurrente échoue au lieu d'écraser
+        student.setVersion(currentVersion);
+        Student saved = studentRepository.save(student);
+        gradeStatisticsService.moveStudent(id, departmentBefore,
+                saved.getDepartment() == null ? null : saved.getDepartment().getIdDepartment());
+        logger.debug("Updated student id={} to version {}", id, saved.getVersion());
+        return saved;
+    }
+
+    // PATCH : un seul UPDATE des champs reçus ; renvoie la nouvelle version
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true, condition = "#changes.containsKey('department')"),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true)
+    })
+    @Transactional
+    public long patchStudent(Long id, Map<String, Object> changes, Long expectedVersion) {
+        logger.info("Patching student id={} fields={} expectedVersion={}", id, changes.keySet(), expectedVersion);
+        boolean departmentChanged = changes.containsKey("department");
+        Long departmentBefore = departmentChanged ? studentRepository.findDepartmentIdById(id).orElse(null) : null;
+        if (partialUpdater.update(Student.class, "idStudent", id, expectedVersion, changes, PATCHABLE_FIELDS) == 0) {
+            throw studentRepository.existsById(id)
+                    ? new OptimisticLockingFailureException("Student " + id + " is no longer at version " + expectedVersion)
+                    : new NoSuchElementException("Student not found: " + id);
+        }
+        if (departmentChanged) {
+            gradeStatisticsService.moveStudent(id, departmentBefore, studentRepository.findDepartmentIdById(id).orElse(null));
+        }
+        return expectedVersion != null ? expectedVersion + 1 : studentRepository.findVersionById(id).orElseThrow();
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true)
+    })
+    @Transactional
     public void deleteStudent(Long id) {
         logger.info("Deleting student id={}", id);
         try {
-            studentRepository.deleteById(id);
+            // Ses inscriptions partent avec lui
+            removeFromStatistics(bulkDeleter.deleteStudents(List.of(id)));
             logger.debug("Deleted student id={}", id);
         } catch (Exception e) {
             logger.error("Error deleting student id={}", id, e);
@@ -59,4 +171,129 @@ public class StudentService implements IStudentService {
         }
     }
 
+    // Ids ou filtre, jamais les deux ; un seul DELETE par lot d'ids pour les étudiants et leurs inscriptions
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, allEntries = true)
+    })
+    @Transactional
+    public BulkDeleteReport deleteStudents(StudentBulkDelete request) {
+        boolean byIds = request.ids() != null && !request.ids().isEmpty();
+        if (byIds == (request.filter() != null)) {
+            throw new BadRequestException("Either ids or filter is required, not both");
+        }
+        logger.info("Bulk deleting students {}", byIds ? request.ids().size() + " ids" : request.filter());
+        BulkDeleter.Outcome outcome = byIds
+                ? bulkDeleter.deleteStudents(request.ids())
+                : bulkDeleter.deleteStudentsMatching(request.filter());
+        removeFromStatistics(outcome);
+        return outcome.report();
+    }
+
+    private void removeFromStatistics(BulkDeleter.Outcome outcome) {
+        outcome.removedSamples().forEach(sample -> gradeStatisticsService.recordChange(sample, null));
+        enrollmentAdmission.forget(outcome.affectedCourses());
+    }
+
+    // Même contenu que getAllStudents, départements émis une seule fois
+    @Transactional(readOnly = true)
+    public CompactStudentList getAllStudentsCompact() {
+        logger.info("Fetching all students (compact)");
+        CompactStudentList list = CompactStudentList.from(studentRepository.findAll());
+        logger.debug("Found {} students, {} departments", list.students().size(), list.departments().size());
+        return list;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Student> getStudentsPage(String cursor, Integer size) {
+        long afterId = CursorPage.decodeCursor(cursor);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        logger.info("Fetching students page after id={} size={}", afterId, pageSize);
+        // Une ligne de plus que demandé pour savoir s'il reste une page suivante
+        List<Student> rows = studentRepository.findByIdStudentGreaterThanOrderByIdStudentAsc(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<Student> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String next = hasNext ? CursorPage.encodeCursor(content.get(pageSize - 1).getIdStudent()) : null;
+        logger.debug("Found {} students, next cursor={}", content.size(), next);
+        return new CursorPage<>(content, next, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StudentSummary> getStudentsSummary() {
+        logger.info("Fetching students summary view");
+        return studentRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StudentWithDepartment> getStudentsWithDepartment() {
+        logger.info("Fetching students with-department view");
+        return studentRepository.findAllWithDepartment();
+    }
+
+    // Lignes lues par curseur et écrites au fur et à mesure : mémoire constante quel que soit le volume.
+    // Projection DTO : rien n'entre dans le contexte de persistance, pas besoin de clear() périodique
+    @Transactional(readOnly = true)
+    public long exportStudents(ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting students as {}", format);
+        try (Stream<StudentWithDepartment> rows = studentRepository.streamAllWithDepartment()) {
+            long count = rowExporter.export(rows, StudentWithDepartment.class, format, out);
+            logger.info("Exported {} students as {}", count, format);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<StudentTranscript> getStudentsTranscript() {
+        logger.info("Fetching students transcript view");
+        List<StudentTranscript> list = studentRepository.findAllWithTranscript().stream()
+                .map(StudentTranscript::from)
+                .toList();
+        logger.debug("Built {} transcripts", list.size());
+        return list;
+    }
+
+    // Mis en cache jusqu'à la prochaine modification des inscriptions de l'étudiant (voir evictTranscript)
+    @Cacheable(cacheNames = CacheConfig.TRANSCRIPTS, key = "#id")
+    @Transactional(readOnly = true)
+    public StudentTranscript getStudentTranscript(Long id) {
+        logger.info("Fetching transcript of student id={}", id);
+        StudentTranscript transcript = studentRepository.findWithTranscriptById(id)
+                .map(StudentTranscript::from)
+                .orElseThrow(() -> new NoSuchElementException("Student not found: " + id));
+        logger.debug("Built transcript of student id={}: {} enrollments, gpa={}", id, transcript.enrollments().size(), transcript.gpa());
+        return transcript;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.TRANSCRIPTS, key = "#id")
+    public void evictTranscript(Long id) {
+        logger.debug("Evicting transcript of student id={}", id);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<Student> searchStudents(StudentSearchCriteria criteria, int page, Integer size, String sort) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), pageSize, parseSort(sort));
+        logger.info("Searching students {} page={} size={} sort={}", criteria, pageRequest.getPageNumber(), pageSize, sort);
+        PageResponse<Student> result = PageResponse.from(
+                studentRepository.findAll(StudentSpecifications.matching(criteria), pageRequest));
+        logger.debug("Search matched {} students", result.totalElements());
+        return result;
+    }
+
+    static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("idStudent");
+        }
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(field)) {
+            throw new BadRequestException("Unsupported sort field: " + field);
+        }
+        Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, field);
+        // idStudent en second critère : ordre stable entre les pages
+        return field.equals("idStudent") ? order : order.and(Sort.by("idStudent"));
+    }
 }
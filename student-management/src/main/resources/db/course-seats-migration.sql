@@ -0,0 +1,11 @@
+-- Migration MySQL : compteur de places prises course.seats_taken, garde-fou de capacité en base
+-- (UPDATE conditionnel de EnrollmentAdmission). ddl-auto=update crée la colonne à 0 : ce script la remplit
+-- depuis les inscriptions existantes (abandons et retraits ne prennent pas de place).
+-- À exécuter une fois, application arrêtée, après le premier démarrage qui a créé la colonne.
+-- Le script peut être relancé sans risque.
+-- mysql -u student_user -p studentdb < course-seats-migration.sql
+
+UPDATE course c
+   SET c.seats_taken = (SELECT COUNT(*) FROM enrollment e
+                         WHERE e.course_id_course = c.id_course
+                           AND (e.status IS NULL OR e.status NOT IN ('DROPPED', 'WITHDRAWN')));
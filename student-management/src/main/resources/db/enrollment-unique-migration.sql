@@ -0,0 +1,46 @@
+-- Migration MySQL 8 : une seule inscription par couple (étudiant, cours), contrainte uk_enrollment_student_course.
+-- ddl-auto=update tente de créer la contrainte au démarrage mais échoue (simple avertissement) tant que
+-- des doublons existent : ce script les supprime puis crée la contrainte.
+-- À exécuter une fois, application arrêtée, puis course-seats-migration.sql (places recomptées).
+-- Relancé, seul l'ALTER échoue (contrainte déjà présente).
+-- mysql -u student_user -p studentdb < enrollment-unique-migration.sql
+
+-- Inscription gardée pour chaque couple : celle qui porte une note, puis le statut le plus avancé
+-- (COMPLETED / FAILED, puis ACTIVE, puis DROPPED / WITHDRAWN), puis la plus récente (date, puis id)
+CREATE TEMPORARY TABLE enrollment_ranked AS
+SELECT id_enrollment, student_id_student, course_id_course, grade, status,
+       ROW_NUMBER() OVER (
+           PARTITION BY student_id_student, course_id_course
+           ORDER BY grade IS NULL,
+                    CASE WHEN status IN ('COMPLETED', 'FAILED') THEN 0
+                         WHEN status IS NULL OR status = 'ACTIVE' THEN 1
+                         ELSE 2 END,
+                    enrollment_date IS NULL, enrollment_date DESC,
+                    id_enrollment DESC) AS rank_in_pair
+  FROM enrollment
+ WHERE student_id_student IS NOT NULL AND course_id_course IS NOT NULL;
+
+-- Conflits à revoir à la main : notes différentes pour un même couple (seule celle de la ligne gardée reste)
+SELECT student_id_student, course_id_course,
+       GROUP_CONCAT(CONCAT(id_enrollment, ':', COALESCE(grade, 'null'), ':', COALESCE(status, 'null'))
+                    ORDER BY rank_in_pair) AS kept_first
+  FROM enrollment_ranked
+ GROUP BY student_id_student, course_id_course
+HAVING COUNT(DISTINCT grade) > 1;
+
+-- Lignes supprimées conservées à part (à effacer une fois les conflits revus)
+CREATE TABLE enrollment_duplicate_backup AS
+SELECT e.* FROM enrollment e
+  JOIN enrollment_ranked r ON r.id_enrollment = e.id_enrollment
+ WHERE r.rank_in_pair > 1;
+
+DELETE e FROM enrollment e
+  JOIN enrollment_ranked r ON r.id_enrollment = e.id_enrollment
+ WHERE r.rank_in_pair > 1;
+
+DROP TEMPORARY TABLE enrollment_ranked;
+
+ALTER TABLE enrollment ADD CONSTRAINT uk_enrollment_student_course UNIQUE (student_id_student, course_id_course);
+
+-- Capacité des cours (colonne créée par ddl-auto=update, NULL = illimité) :
+-- UPDATE course SET capacity = 30 WHERE code = 'CS101';
@@ -0,0 +1,24 @@
+-- Migration MySQL : ids AUTO_INCREMENT (IDENTITY) -> séquences réservées par blocs (allocationSize = 50, pooled-lo).
+-- MySQL n'a pas de séquences : Hibernate les émule avec une table <entité>_seq à une colonne next_val,
+-- qui contient le premier id du prochain bloc.
+-- À exécuter une fois, application arrêtée. Le script peut être relancé sans risque, y compris si
+-- ddl-auto=update a déjà créé les tables *_seq avec next_val = 1.
+-- mysql -u student_user -p studentdb < pooled-id-migration.sql
+
+CREATE TABLE IF NOT EXISTS department_seq (next_val BIGINT);
+DELETE FROM department_seq;
+INSERT INTO department_seq (next_val) SELECT COALESCE(MAX(id_department), 0) + 1 FROM department;
+
+CREATE TABLE IF NOT EXISTS course_seq (next_val BIGINT);
+DELETE FROM course_seq;
+INSERT INTO course_seq (next_val) SELECT COALESCE(MAX(id_course), 0) + 1 FROM course;
+
+CREATE TABLE IF NOT EXISTS student_seq (next_val BIGINT);
+DELETE FROM student_seq;
+INSERT INTO student_seq (next_val) SELECT COALESCE(MAX(id_student), 0) + 1 FROM student;
+
+CREATE TABLE IF NOT EXISTS enrollment_seq (next_val BIGINT);
+DELETE FROM enrollment_seq;
+INSERT INTO enrollment_seq (next_val) SELECT COALESCE(MAX(id_enrollment), 0) + 1 FROM enrollment;
+
+-- Les colonnes gardent leur AUTO_INCREMENT : sans effet, Hibernate fournit désormais l'id à chaque insert.
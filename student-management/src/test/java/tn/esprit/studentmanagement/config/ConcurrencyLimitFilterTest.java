@@ -0,0 +1,102 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), registry);
+
+    private double available() {
+        return registry.get(ConcurrencyLimitFilter.AVAILABLE_METRIC).gauge().value();
+    }
+
+    // Test 1: Créneau pris à la première transaction, une seule fois par requête, et rendu à la fin
+    @Test
+    void shouldTakeOnePermitAtFirstTransactionAndReleaseIt() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/students/getAllStudents"), response, (req, res) -> {
+            assertEquals(1, available());
+            filter.beforeBegin(null);
+            filter.beforeBegin(null);
+            assertEquals(0, available());
+            res.getWriter().write("[]");
+        });
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, available());
+        assertEquals(0, registry.get(ConcurrencyLimitFilter.REJECTED_METRIC).counter().count());
+    }
+
+    // Test 2: Transaction refusée quand tous les créneaux sont occupés ; une requête sans transaction
+    // (304, lecture servie par le cache) passe quand même
+    @Test
+    void shouldRejectTransactionWhenAllPermitsAreBusy() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/students/getAllStudents"), new MockHttpServletResponse(),
+                        (req, res) -> {
+                            filter.beforeBegin(null);
+                            inFlight.countDown();
+                            try {
+                                finish.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+            assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse cached = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/students/getStudent/1"), cached,
+                    (req, res) -> res.getWriter().write("{}"));
+            assertEquals(200, cached.getStatus());
+
+            ConcurrencyLimitExceededException rejected = assertThrows(ConcurrencyLimitExceededException.class,
+                    () -> filter.doFilter(new MockHttpServletRequest("GET", "/students/getStudent/2"),
+                            new MockHttpServletResponse(), (req, res) -> filter.beforeBegin(null)));
+            assertEquals(1, rejected.getRetryAfterSeconds());
+            assertEquals(1, registry.get(ConcurrencyLimitFilter.REJECTED_METRIC).counter().count());
+
+            finish.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(1, available());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test 3: Transaction hors requête API (tâche de fond) : jamais limitée
+    @Test
+    void shouldNotLimitTransactionsOutsideRequests() {
+        filter.beforeBegin(null);
+
+        assertEquals(1, available());
+    }
+
+    // Test 4: Actuator n'est jamais limité
+    @Test
+    void shouldNotLimitActuator() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/student/actuator/health");
+        request.setContextPath("/student");
+
+        assertTrue(filter.shouldNotFilter(request));
+    }
+}
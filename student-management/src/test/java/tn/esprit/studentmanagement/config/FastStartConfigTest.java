@@ -0,0 +1,27 @@
+package tn.esprit.studentmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import tn.esprit.studentmanagement.controllers.ApiExceptionHandler;
+import tn.esprit.studentmanagement.controllers.StudentController;
+import tn.esprit.studentmanagement.services.GradeStatisticsService;
+import tn.esprit.studentmanagement.services.GradeWriteBehind;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastStartConfigTest {
+
+    // Test 1: Contrôleurs, gestion des erreurs et écriture différée des notes créés au démarrage
+    @Test
+    void isEager_ShouldKeepRequestPathAndWriteBehind() {
+        assertTrue(FastStartConfig.isEager(StudentController.class));
+        assertTrue(FastStartConfig.isEager(ApiExceptionHandler.class));
+        assertTrue(FastStartConfig.isEager(GradeWriteBehind.class));
+    }
+
+    // Test 2: Les autres beans restent paresseux (les services suivent les contrôleurs par dépendance)
+    @Test
+    void isEager_ShouldLeaveOtherBeansLazy() {
+        assertFalse(FastStartConfig.isEager(GradeStatisticsService.class));
+        assertFalse(FastStartConfig.isEager(null));
+    }
+}
@@ -0,0 +1,50 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PoolSaturationTrackerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IMetricsTracker delegate = mock(IMetricsTracker.class);
+    private final PoolSaturationTracker tracker = new PoolSaturationTracker(delegate, "primary", new PoolStats(0) {
+        @Override
+        protected void update() {
+            activeConnections = 10;
+            maxConnections = 10;
+            pendingThreads = 4;
+        }
+    }, new ConnectionPoolProperties(Duration.ofMillis(50), Duration.ofMinutes(1)), registry);
+
+    // Test 1: Seules les acquisitions au-delà du seuil sont comptées, toutes vont au tracker Micrometer
+    @Test
+    void shouldCountSlowAcquiresOnly() {
+        // Act
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(120));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(300));
+
+        // Assert
+        verify(delegate, times(3)).recordConnectionAcquiredNanos(anyLong());
+        assertEquals(2, registry.get(PoolSaturationTracker.SLOW_ACQUIRE_METRIC).tag("pool", "primary").counter().count());
+    }
+
+    // Test 2: Timeout d'acquisition compté et transmis
+    @Test
+    void shouldCountTimeouts() {
+        // Act
+        tracker.recordConnectionTimeout();
+
+        // Assert
+        verify(delegate).recordConnectionTimeout();
+        assertEquals(1, registry.get(PoolSaturationTracker.TIMEOUT_METRIC).tag("pool", "primary").counter().count());
+    }
+}
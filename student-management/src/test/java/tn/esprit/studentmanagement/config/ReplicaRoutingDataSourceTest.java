@@ -0,0 +1,148 @@
+package tn.esprit.studentmanagement.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Deux bases H2 distinctes jouent le primaire et la réplique ; chacune renvoie son propre nom
+class ReplicaRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private long lastLocalWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing-primary", "primary");
+        replica = database("routing-replica", "replica");
+        lastLocalWrite = 0;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        lagMonitor.close();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    // Test 1: Lecture readOnly sur la réplique, transaction en écriture sur le primaire
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        // Arrange
+        route(null);
+
+        // Act & Assert
+        assertEquals("replica", readOnly.execute(status -> source()));
+        assertEquals("primary", readWrite.execute(status -> source()));
+        assertEquals("primary", source());
+    }
+
+    // Test 2: Retard au-delà de max-lag ou écriture locale plus récente : lectures sur le primaire
+    @Test
+    void shouldReadFromPrimary_WhenReplicaIsBehind() {
+        // Arrange
+        route("SELECT 30");
+
+        // Act & Assert
+        assertEquals("primary", readOnly.execute(status -> source()));
+
+        route("SELECT 2");
+        assertEquals("replica", readOnly.execute(status -> source()));
+        lastLocalWrite = System.currentTimeMillis() - 1000;
+        assertEquals("primary", readOnly.execute(status -> source()));
+    }
+
+    // Test 3: Read-your-writes : après une écriture, le client lit sur le primaire, y compris via son cookie
+    @Test
+    void shouldStickToPrimary_AfterClientWrite() {
+        // Arrange
+        route(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+        // Act
+        readWrite.execute(status -> source());
+
+        // Assert
+        assertEquals("primary", readOnly.execute(status -> source()));
+        Cookie sticky = response.getCookie(ReplicaRoutingDataSource.STICKY_COOKIE);
+        assertNotNull(sticky);
+        assertTrue(sticky.isHttpOnly());
+
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(sticky);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(next, new MockHttpServletResponse()));
+        assertEquals("primary", readOnly.execute(status -> source()));
+
+        MockHttpServletRequest expired = new MockHttpServletRequest();
+        expired.setCookies(new Cookie(ReplicaRoutingDataSource.STICKY_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(expired, new MockHttpServletResponse()));
+        assertEquals("replica", readOnly.execute(status -> source()));
+    }
+
+    // Test 4: Transaction en écriture annulée : pas de cookie
+    @Test
+    void shouldNotStick_WhenWriteIsRolledBack() {
+        // Arrange
+        route(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+        // Act
+        readWrite.execute(status -> {
+            status.setRollbackOnly();
+            return source();
+        });
+
+        // Assert
+        assertNull(response.getCookie(ReplicaRoutingDataSource.STICKY_COOKIE));
+        assertEquals("replica", readOnly.execute(status -> source()));
+    }
+
+    private void route(String lagQuery) {
+        if (lagMonitor != null) {
+            lagMonitor.close();
+        }
+        lagMonitor = new ReplicaLagMonitor(replica, lagQuery, Duration.ofHours(1));
+        lagMonitor.refresh();
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, lagMonitor,
+                () -> lastLocalWrite, Duration.ofSeconds(5), Duration.ofSeconds(5)));
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private static DriverManagerDataSource database(String name, String content) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE source (name VARCHAR(20))");
+        jdbc.update("INSERT INTO source VALUES (?)", content);
+        return dataSource;
+    }
+}
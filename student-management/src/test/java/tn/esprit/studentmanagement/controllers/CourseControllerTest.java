@@ -0,0 +1,112 @@
+package tn.esprit.studentmanagement.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.services.ICourseService;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CourseController.class)
+class CourseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ICourseService courseService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Course createCourse(Long id, String code) {
+        Course course = new Course();
+        course.setIdCourse(id);
+        course.setCode(code);
+        course.setName("Algorithms");
+        course.setCredit(4);
+        return course;
+    }
+
+    // Test 1: GET /Course/getCourseByCode/{code} - Cours trouvé
+    @Test
+    void getCourseByCode_ShouldReturnCourse() throws Exception {
+        when(courseService.getCourseByCode("CS101")).thenReturn(createCourse(1L, "CS101"));
+
+        mockMvc.perform(get("/Course/getCourseByCode/CS101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idCourse").value(1))
+                .andExpect(jsonPath("$.code").value("CS101"))
+                .andExpect(jsonPath("$.credit").value(4))
+                .andExpect(jsonPath("$.enrollments").doesNotExist());
+    }
+
+    // Test 2: GET /Course/getCourse/{id} - Cours inexistant -> 404
+    @Test
+    void getCourse_ShouldReturn404_WhenMissing() throws Exception {
+        when(courseService.getCourseById(99L)).thenThrow(new NoSuchElementException("Course not found: 99"));
+
+        mockMvc.perform(get("/Course/getCourse/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Course not found: 99"));
+    }
+
+    // Test 3: GET /Course/getCoursesPage - Page de cours
+    @Test
+    void getCoursesPage_ShouldReturnPage() throws Exception {
+        when(courseService.getCoursesPage(1, 2))
+                .thenReturn(new PageResponse<>(List.of(createCourse(3L, "PH301")), 1, 2, 3, 2));
+
+        mockMvc.perform(get("/Course/getCoursesPage").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].code").value("PH301"))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    // Test 4: POST /Course/createCourse - Création
+    @Test
+    void createCourse_ShouldReturnSavedCourse() throws Exception {
+        when(courseService.saveCourse(any(Course.class))).thenReturn(createCourse(1L, "CS101"));
+
+        mockMvc.perform(post("/Course/createCourse")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCourse(null, "CS101"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idCourse").value(1));
+    }
+
+    // Test 5: POST /Course/createCourse - Code déjà utilisé -> 409
+    @Test
+    void createCourse_ShouldReturn409_WhenCodeTaken() throws Exception {
+        when(courseService.saveCourse(any(Course.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_course_code"));
+
+        mockMvc.perform(post("/Course/createCourse")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCourse(null, "CS101"))))
+                .andExpect(status().isConflict());
+    }
+
+    // Test 6: DELETE /Course/deleteCourse/{id}
+    @Test
+    void deleteCourse_ShouldCallService() throws Exception {
+        mockMvc.perform(delete("/Course/deleteCourse/1"))
+                .andExpect(status().isOk());
+
+        verify(courseService).deleteCourse(1L);
+    }
+}
@@ -7,19 +7,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.services.IDepartmentService;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(DepartmentController.class)
+@WebMvcTest(controllers = DepartmentController.class, properties = "app.http.cache.enabled=true")
 class DepartmentControllerTest {
     
     @Autowired
@@ -30,27 +37,23 @@ class DepartmentControllerTest {
     
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceVersionTracker versionTracker;
+
+    private static DepartmentSummary summary() {
+        return new DepartmentSummary(1L, "Computer Science", "Building A", null, null, 0, 10);
+    }
     
-    // Test 1: GET /Depatment/getAllDepartment - Liste de départements
+    // Test 1: GET /Depatment/getAllDepartment - Liste de départements avec leur nombre d'étudiants
     @Test
     void getAllDepartment_ShouldReturnListOfDepartments() throws Exception {
         // Arrange
-        Department dept1 = new Department();
-        dept1.setIdDepartment(1L);
-        dept1.setName("Computer Science");
-        dept1.setLocation("Building A");
-        dept1.setPhone("123-456-7890");
-        dept1.setHead("Dr. Smith");
-        
-        Department dept2 = new Department();
-        dept2.setIdDepartment(2L);
-        dept2.setName("Mathematics");
-        dept2.setLocation("Building B");
-        dept2.setPhone("098-765-4321");
-        dept2.setHead("Dr. Johnson");
+        DepartmentSummary dept1 = new DepartmentSummary(1L, "Computer Science", "Building A", "123-456-7890", "Dr. Smith", 0, 120);
+        DepartmentSummary dept2 = new DepartmentSummary(2L, "Mathematics", "Building B", "098-765-4321", "Dr. Johnson", 0, 0);
         
-        List<Department> departments = Arrays.asList(dept1, dept2);
-        when(departmentService.getAllDepartments()).thenReturn(departments);
+        List<DepartmentSummary> departments = Arrays.asList(dept1, dept2);
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(departments);
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getAllDepartment")
@@ -62,68 +65,69 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("$[0].location").value("Building A"))
                 .andExpect(jsonPath("$[0].phone").value("123-456-7890"))
                 .andExpect(jsonPath("$[0].head").value("Dr. Smith"))
+                .andExpect(jsonPath("$[0].studentCount").value(120))
+                .andExpect(jsonPath("$[0].students").doesNotExist())
                 .andExpect(jsonPath("$[1].idDepartment").value(2))
                 .andExpect(jsonPath("$[1].name").value("Mathematics"))
                 .andExpect(jsonPath("$[1].location").value("Building B"))
                 .andExpect(jsonPath("$[1].phone").value("098-765-4321"))
-                .andExpect(jsonPath("$[1].head").value("Dr. Johnson"));
+                .andExpect(jsonPath("$[1].head").value("Dr. Johnson"))
+                .andExpect(jsonPath("$[1].studentCount").value(0));
         
-        verify(departmentService).getAllDepartments();
+        verify(departmentService).getAllDepartmentSummaries();
     }
     
     // Test 2: GET /Depatment/getAllDepartment - Liste vide
     @Test
     void getAllDepartment_ShouldReturnEmptyList_WhenNoDepartments() throws Exception {
         // Arrange
-        when(departmentService.getAllDepartments()).thenReturn(Arrays.asList());
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(Arrays.asList());
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getAllDepartment"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
         
-        verify(departmentService).getAllDepartments();
+        verify(departmentService).getAllDepartmentSummaries();
     }
     
-    // Test 3: GET /Depatment/getDepartment/{id} - Département trouvé
+    // Test 3: GET /Depatment/getDepartment/{id} - Département trouvé, nombre d'étudiants sans la liste
     @Test
     void getDepartment_ShouldReturnDepartment_WhenExists() throws Exception {
         // Arrange
         Long departmentId = 1L;
-        Department department = new Department();
-        department.setIdDepartment(departmentId);
-        department.setName("Computer Science");
-        department.setLocation("Building A");
-        department.setPhone("123-456-7890");
-        department.setHead("Dr. Smith");
+        DepartmentSummary department = new DepartmentSummary(departmentId, "Computer Science", "Building A",
+                "123-456-7890", "Dr. Smith", 3, 25_000);
         
-        when(departmentService.getDepartmentById(departmentId)).thenReturn(department);
+        when(departmentService.getDepartmentSummary(departmentId)).thenReturn(department);
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getDepartment/{id}", departmentId))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"3-")))
                 .andExpect(jsonPath("$.idDepartment").value(departmentId))
                 .andExpect(jsonPath("$.name").value("Computer Science"))
                 .andExpect(jsonPath("$.location").value("Building A"))
                 .andExpect(jsonPath("$.phone").value("123-456-7890"))
-                .andExpect(jsonPath("$.head").value("Dr. Smith"));
+                .andExpect(jsonPath("$.head").value("Dr. Smith"))
+                .andExpect(jsonPath("$.studentCount").value(25_000));
         
-        verify(departmentService).getDepartmentById(departmentId);
+        verify(departmentService).getDepartmentSummary(departmentId);
     }
     
     // Test 4: GET /Depatment/getDepartment/{id} - Département non trouvé
     @Test
-    void getDepartment_ShouldReturnNull_WhenNotExists() throws Exception {
+    void getDepartment_ShouldReturn404_WhenNotExists() throws Exception {
         // Arrange
         Long departmentId = 999L;
-        when(departmentService.getDepartmentById(departmentId)).thenReturn(null);
+        when(departmentService.getDepartmentSummary(departmentId))
+                .thenThrow(new NoSuchElementException("Department not found: 999"));
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getDepartment/{id}", departmentId))
-                .andExpect(status().isOk())
-                .andExpect(content().string(""));
+                .andExpect(status().isNotFound());
         
-        verify(departmentService).getDepartmentById(departmentId);
+        verify(departmentService).getDepartmentSummary(departmentId);
     }
     
     // Test 5: POST /Depatment/createDepartment - Créer un département
@@ -176,11 +180,13 @@ class DepartmentControllerTest {
         updatedDepartment.setLocation("Building A - Floor 2");
         updatedDepartment.setPhone("111-222-3333");
         updatedDepartment.setHead("Dr. Smith Updated");
+        updatedDepartment.setVersion(2L);
         
-        when(departmentService.saveDepartment(any(Department.class))).thenReturn(updatedDepartment);
+        when(departmentService.updateDepartment(any(Department.class), eq(1L))).thenReturn(updatedDepartment);
         
         // Act & Assert
         mockMvc.perform(put("/Depatment/updateDepartment")
+                .header("If-Match", "\"1\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(departmentToUpdate)))
                 .andExpect(status().isOk())
@@ -188,9 +194,10 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("$.name").value("Computer Science Updated"))
                 .andExpect(jsonPath("$.location").value("Building A - Floor 2"))
                 .andExpect(jsonPath("$.phone").value("111-222-3333"))
-                .andExpect(jsonPath("$.head").value("Dr. Smith Updated"));
+                .andExpect(jsonPath("$.head").value("Dr. Smith Updated"))
+                .andExpect(header().string("ETag", startsWith("W/\"2-")));
         
-        verify(departmentService).saveDepartment(any(Department.class));
+        verify(departmentService).updateDepartment(any(Department.class), eq(1L));
     }
     
     // Test 7: DELETE /Depatment/deleteDepartment/{id} - Supprimer un département
@@ -211,7 +218,7 @@ class DepartmentControllerTest {
     @Test
     void shouldAllowCorsFromLocalhost4200() throws Exception {
         // Arrange
-        when(departmentService.getAllDepartments()).thenReturn(Arrays.asList());
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(Arrays.asList());
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getAllDepartment")
@@ -247,17 +254,100 @@ class DepartmentControllerTest {
     @Test
     void getAllDepartment_ShouldCallServiceAndReturn() throws Exception {
         // Arrange
-        Department dept = new Department();
-        dept.setIdDepartment(1L);
-        dept.setName("Test");
+        DepartmentSummary dept = new DepartmentSummary(1L, "Test", null, null, null, 0, 0);
         
-        when(departmentService.getAllDepartments()).thenReturn(Arrays.asList(dept));
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(Arrays.asList(dept));
         
         // Act & Assert
         mockMvc.perform(get("/Depatment/getAllDepartment"))
                 .andExpect(status().isOk());
         
         // Le logger dans le controller sera appelé mais difficile à tester directement
-        verify(departmentService).getAllDepartments();
+        verify(departmentService).getAllDepartmentSummaries();
+    }
+
+    // Test 11: PATCH /Depatment/patchDepartment/{id} - Sans If-Match
+    @Test
+    void patchDepartment_ShouldPassNoExpectedVersion_WhenIfMatchIsAbsent() throws Exception {
+        // Arrange
+        when(departmentService.patchDepartment(1L, Map.of("head", "Dr. Ben Ali"), null)).thenReturn(5L);
+
+        // Act & Assert
+        mockMvc.perform(patch("/Depatment/patchDepartment/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"head\": \"Dr. Ben Ali\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", startsWith("W/\"5-")));
+    }
+
+    // Test 12: GET conditionnel - 304 sans appel au service tant que rien n'a été écrit
+    @Test
+    void getAllDepartment_ShouldReturn304_WhenETagStillMatches() throws Exception {
+        // Arrange
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(List.of(summary()));
+        String etag = mockMvc.perform(get("/Depatment/getAllDepartment"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/Depatment/getAllDepartment").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(departmentService, times(1)).getAllDepartmentSummaries();
+    }
+
+    // Test 13: GET conditionnel - une écriture invalide l'ETag
+    @Test
+    void getAllDepartment_ShouldReturn200_AfterDepartmentChange() throws Exception {
+        // Arrange
+        when(departmentService.getAllDepartmentSummaries()).thenReturn(List.of(summary()));
+        String etag = mockMvc.perform(get("/Depatment/getAllDepartment"))
+                .andReturn().getResponse().getHeader("ETag");
+        versionTracker.changed(ResourceVersionTracker.Resource.DEPARTMENT);
+
+        // Act & Assert
+        mockMvc.perform(get("/Depatment/getAllDepartment").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        verify(departmentService, times(2)).getAllDepartmentSummaries();
+    }
+
+    // Test 14: GET /Depatment/getDepartment/{id}/students - Page d'étudiants et curseur suivant
+    @Test
+    void getDepartmentStudents_ShouldReturnCursorPage() throws Exception {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(42L);
+        student.setFirstName("Amine");
+        when(departmentService.getDepartmentStudents(1L, "NDI", 1))
+                .thenReturn(new CursorPage<>(List.of(student), CursorPage.encodeCursor(42L), 1));
+
+        // Act & Assert
+        mockMvc.perform(get("/Depatment/getDepartment/1/students").param("cursor", "NDI").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].idStudent").value(42))
+                .andExpect(jsonPath("$.next").value(CursorPage.encodeCursor(42L)))
+                .andExpect(jsonPath("$.size").value(1));
+    }
+
+    // Test 15: GET conditionnel - une écriture d'étudiant change le nombre d'étudiants, donc l'ETag
+    @Test
+    void getDepartment_ShouldReturn200_AfterStudentChange() throws Exception {
+        // Arrange
+        when(departmentService.getDepartmentSummary(1L)).thenReturn(summary());
+        String etag = mockMvc.perform(get("/Depatment/getDepartment/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/Depatment/getDepartment/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        versionTracker.changed(ResourceVersionTracker.Resource.STUDENT);
+
+        // Act & Assert
+        mockMvc.perform(get("/Depatment/getDepartment/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentCount").value(10));
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,50 @@
 package tn.esprit.studentmanagement.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.config.ConcurrencyLimitExceededException;
+import tn.esprit.studentmanagement.config.WireFormatConfig;
+import tn.esprit.studentmanagement.dto.CompactStudentList;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentSummary;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.dto.TranscriptEntry;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.services.BadRequestException;
 import tn.esprit.studentmanagement.services.IStudentService;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(StudentController.class)
+@WebMvcTest(controllers = StudentController.class, properties = "app.http.cache.enabled=true")
+@Import(WireFormatConfig.class)
 class StudentControllerTest {
     
     @Autowired
@@ -30,6 +55,9 @@ class StudentControllerTest {
     
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceVersionTracker versionTracker;
     
     // Test 1: GET /students/getAllStudents - Liste d'étudiants
     @Test
@@ -171,8 +199,9 @@ class StudentControllerTest {
         updatedStudent.setFirstName("John");
         updatedStudent.setLastName("Doe Updated");
         updatedStudent.setEmail("john.updated@example.com");
+        updatedStudent.setVersion(4L);
         
-        when(studentService.saveStudent(any(Student.class))).thenReturn(updatedStudent);
+        when(studentService.updateStudent(any(Student.class), isNull())).thenReturn(updatedStudent);
         
         // Act & Assert
         mockMvc.perform(put("/students/updateStudent")
@@ -182,9 +211,10 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$.idStudent").value(1))
                 .andExpect(jsonPath("$.firstName").value("John"))
                 .andExpect(jsonPath("$.lastName").value("Doe Updated"))
-                .andExpect(jsonPath("$.email").value("john.updated@example.com"));
+                .andExpect(jsonPath("$.email").value("john.updated@example.com"))
+                .andExpect(header().string("ETag", startsWith("W/\"4-")));
         
-        verify(studentService).saveStudent(any(Student.class));
+        verify(studentService).updateStudent(any(Student.class), isNull());
     }
     
     // Test 7: DELETE /students/deleteStudent/{id} - Supprimer un étudiant
@@ -231,4 +261,284 @@ class StudentControllerTest {
         mockMvc.perform(get("/students/getStudent/{id}", "not-a-number"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    // Test 11: GET /students/getStudentsPage - Page avec curseur suivant
+    @Test
+    void getStudentsPage_ShouldReturnPageWithNextCursor() throws Exception {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setFirstName("John");
+        String next = CursorPage.encodeCursor(1L);
+        when(studentService.getStudentsPage(null, 1))
+                .thenReturn(new CursorPage<>(List.of(student), next, 1));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudentsPage").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].idStudent").value(1))
+                .andExpect(jsonPath("$.next").value(next))
+                .andExpect(jsonPath("$.size").value(1));
+
+        verify(studentService).getStudentsPage(null, 1);
+    }
+
+    // Test 12: GET /students/getStudentsPage - Curseur invalide
+    @Test
+    void getStudentsPage_ShouldReturnBadRequest_WhenCursorInvalid() throws Exception {
+        // Arrange
+        when(studentService.getStudentsPage("bad", null)).thenThrow(new BadRequestException("Invalid cursor: bad"));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudentsPage").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test 13: GET /students/getStudentsSummary - Vue projetée sans associations
+    @Test
+    void getStudentsSummary_ShouldReturnProjection() throws Exception {
+        // Arrange
+        when(studentService.getStudentsSummary())
+                .thenReturn(List.of(new StudentSummary(1L, "John", "Doe", "john.doe@example.com")));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudentsSummary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idStudent").value(1))
+                .andExpect(jsonPath("$[0].email").value("john.doe@example.com"))
+                .andExpect(jsonPath("$[0].department").doesNotExist());
+
+        verify(studentService).getStudentsSummary();
+    }
+
+    // Test 14: GET /students/searchStudents - Filtres combinés liés aux paramètres
+    @Test
+    void searchStudents_ShouldBindCriteriaAndReturnPage() throws Exception {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setLastName("Doe");
+        StudentSearchCriteria criteria = new StudentSearchCriteria("Do", null, 3L,
+                LocalDate.of(2000, 1, 1), null);
+        when(studentService.searchStudents(criteria, 0, 10, "lastName,asc"))
+                .thenReturn(new PageResponse<>(List.of(student), 0, 10, 1, 1));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/searchStudents")
+                        .param("name", "Do")
+                        .param("departmentId", "3")
+                        .param("bornAfter", "2000-01-01")
+                        .param("size", "10")
+                        .param("sort", "lastName,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lastName").value("Doe"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(studentService).searchStudents(criteria, 0, 10, "lastName,asc");
+    }
+
+    // Test 15: GET /students/getStudentTranscript/{id} - Relevé avec moyenne
+    @Test
+    void getStudentTranscript_ShouldReturnTranscriptWithGpa() throws Exception {
+        // Arrange
+        TranscriptEntry entry = new TranscriptEntry(5L, 2L, "CS101", "Algorithms", 3,
+                LocalDate.of(2024, 9, 1), Status.COMPLETED, 14.0);
+        when(studentService.getStudentTranscript(1L)).thenReturn(
+                new StudentTranscript(1L, "John", "Doe", "john.doe@example.com", "Computer Science", List.of(entry), 14.0, 3));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudentTranscript/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.departmentName").value("Computer Science"))
+                .andExpect(jsonPath("$.enrollments[0].courseCode").value("CS101"))
+                .andExpect(jsonPath("$.enrollments[0].credit").value(3))
+                .andExpect(jsonPath("$.gpa").value(14.0))
+                .andExpect(jsonPath("$.gpaCredits").value(3));
+    }
+
+    // Test 16: PATCH /students/patchStudent/{id} - If-Match transmis, nouvelle version en ETag
+    @Test
+    void patchStudent_ShouldReturnNewETag() throws Exception {
+        // Arrange
+        when(studentService.patchStudent(1L, Map.of("email", "john@example.com"), 3L)).thenReturn(4L);
+
+        // Act & Assert
+        mockMvc.perform(patch("/students/patchStudent/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"john@example.com\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", startsWith("W/\"4-")));
+    }
+
+    // Test 17: PUT /students/updateStudent - Version périmée avec If-Match
+    @Test
+    void updateStudent_ShouldReturn412_WhenIfMatchIsStale() throws Exception {
+        // Arrange
+        when(studentService.updateStudent(any(Student.class), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("Student 1 is at version 3, not 2"));
+
+        // Act & Assert
+        mockMvc.perform(put("/students/updateStudent")
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idStudent\": 1, \"firstName\": \"John\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // Test 18: PUT /students/updateStudent - Conflit sans If-Match
+    @Test
+    void updateStudent_ShouldReturn409_WhenConcurrentWriteWithoutIfMatch() throws Exception {
+        // Arrange
+        when(studentService.updateStudent(any(Student.class), isNull()))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+
+        // Act & Assert
+        mockMvc.perform(put("/students/updateStudent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idStudent\": 1, \"firstName\": \"John\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    // Test 19: If-Match mal formé
+    @Test
+    void patchStudent_ShouldReturn400_WhenIfMatchIsMalformed() throws Exception {
+        mockMvc.perform(patch("/students/patchStudent/1")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"john@example.com\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(studentService);
+    }
+
+    // Test 20: GET conditionnel d'un étudiant - ETag W/"<version>-<vue>", 304 sans relire l'étudiant
+    @Test
+    void getStudent_ShouldReturn304_WhenEntityTagStillMatches() throws Exception {
+        // Arrange
+        String etag = "W/\"7-" + versionTracker.tag(ResourceVersionTracker.Resource.STUDENT) + "\"";
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudent/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        verifyNoInteractions(studentService);
+    }
+
+    // Test 21: Un changement de département invalide les vues étudiant (département embarqué)
+    @Test
+    void getStudent_ShouldReturn200_AfterDepartmentChange() throws Exception {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setVersion(7L);
+        when(studentService.getStudentById(1L)).thenReturn(student);
+        String etag = "W/\"7-" + versionTracker.tag(ResourceVersionTracker.Resource.STUDENT) + "\"";
+        versionTracker.changed(ResourceVersionTracker.Resource.DEPARTMENT);
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudent/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"7-")))
+                .andExpect(jsonPath("$.idStudent").value(1));
+    }
+
+    // Test 22: GET /students/exportStudents - Flux CSV en pièce jointe
+    @Test
+    void exportStudents_ShouldStreamCsvAttachment() throws Exception {
+        // Arrange
+        when(studentService.exportStudents(eq(ExportFormat.CSV), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("idStudent\r\n1\r\n".getBytes());
+            return 1L;
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/students/exportStudents").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"students.csv\""))
+                .andExpect(content().string("idStudent\r\n1\r\n"));
+    }
+
+    // Test 23: Format d'export inconnu
+    @Test
+    void exportStudents_ShouldReturn400_WhenFormatIsUnknown() throws Exception {
+        mockMvc.perform(get("/students/exportStudents").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(studentService);
+    }
+
+    // Test 24: GET /students/getAllStudentsCompact - Département émis une seule fois
+    @Test
+    void getAllStudentsCompact_ShouldReferenceDepartmentsById() throws Exception {
+        // Arrange
+        when(studentService.getAllStudentsCompact()).thenReturn(compactStudents());
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getAllStudentsCompact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.students.length()").value(2))
+                .andExpect(jsonPath("$.students[0].idDepartment").value(3))
+                .andExpect(jsonPath("$.students[1].idDepartment").value(3))
+                .andExpect(jsonPath("$.departments.length()").value(1))
+                .andExpect(jsonPath("$.departments['3'].name").value("Computer Science"));
+    }
+
+    // Test 25: Accept: application/cbor - Même contenu encodé en CBOR
+    @Test
+    void getAllStudentsCompact_ShouldNegotiateCbor() throws Exception {
+        // Arrange
+        when(studentService.getAllStudentsCompact()).thenReturn(compactStudents());
+
+        // Act
+        byte[] body = mockMvc.perform(get("/students/getAllStudentsCompact").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        JsonNode tree = new CBORMapper().readTree(body);
+        assertEquals("Jane", tree.path("students").get(1).path("firstName").asText());
+        assertEquals("Computer Science", tree.path("departments").path("3").path("name").asText());
+    }
+
+    // Test 26: Plus de créneau libre pour la base - 503 avec Retry-After
+    @Test
+    void getStudent_ShouldReturn503_WhenConcurrencyLimitIsReached() throws Exception {
+        // Arrange
+        when(studentService.getStudentById(1L)).thenThrow(new ConcurrencyLimitExceededException(2));
+
+        // Act & Assert
+        mockMvc.perform(get("/students/getStudent/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    // Test 27: IllegalArgumentException interne - pas de 400 ni de message renvoyé au client
+    @Test
+    void getStudent_ShouldNotMapInternalIllegalArgumentToBadRequest() {
+        // Arrange
+        when(studentService.getStudentById(1L)).thenThrow(new IllegalArgumentException("Untracked entity type: Student"));
+
+        // Act & Assert
+        assertThrows(ServletException.class, () -> mockMvc.perform(get("/students/getStudent/{id}", 1L)));
+    }
+
+    private CompactStudentList compactStudents() {
+        Department department = new Department();
+        department.setIdDepartment(3L);
+        department.setName("Computer Science");
+        Student john = new Student();
+        john.setIdStudent(1L);
+        john.setFirstName("John");
+        john.setDepartment(department);
+        Student jane = new Student();
+        jane.setIdStudent(2L);
+        jane.setFirstName("Jane");
+        jane.setDepartment(department);
+        return CompactStudentList.from(List.of(john, jane));
+    }
+}
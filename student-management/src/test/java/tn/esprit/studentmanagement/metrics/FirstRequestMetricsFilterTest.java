@@ -0,0 +1,48 @@
+package tn.esprit.studentmanagement.metrics;
+
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirstRequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong uptime = new AtomicLong(1_250);
+    private final FirstRequestMetricsFilter filter = new FirstRequestMetricsFilter(registry, uptime::get);
+
+    // Test 1: Aucune mesure avant la première requête, puis le temps écoulé à la fin de celle-ci
+    @Test
+    void shouldRecordUptimeWhenFirstRequestCompletes() throws Exception {
+        assertNull(registry.find(FirstRequestMetricsFilter.METRIC_NAME).timeGauge());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (req, res) -> uptime.set(1_400));
+
+        TimeGauge gauge = registry.get(FirstRequestMetricsFilter.METRIC_NAME).timeGauge();
+        assertEquals(1_400, gauge.value(TimeUnit.MILLISECONDS));
+    }
+
+    // Test 2: Les requêtes suivantes, même en échec, ne changent pas la mesure
+    @Test
+    void shouldKeepFirstMeasurement() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/students/getAllStudents"), new MockHttpServletResponse(),
+                (req, res) -> { });
+        uptime.set(60_000);
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/students/getStudent/1"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        TimeGauge gauge = registry.get(FirstRequestMetricsFilter.METRIC_NAME).timeGauge();
+        assertEquals(1_250, gauge.value(TimeUnit.MILLISECONDS));
+    }
+}
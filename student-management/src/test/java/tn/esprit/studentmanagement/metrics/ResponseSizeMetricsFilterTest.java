@@ -0,0 +1,54 @@
+package tn.esprit.studentmanagement.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseSizeMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseSizeMetricsFilter filter = new ResponseSizeMetricsFilter(registry);
+
+    // Test 1: Octets écrits sur le flux binaire, étiquetés par motif d'URI
+    @Test
+    void shouldRecordBytesWrittenToOutputStream() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students/getStudent/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] body = "{\"idStudent\":1}".getBytes(StandardCharsets.UTF_8);
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/students/getStudent/{id}");
+            res.getOutputStream().write(body);
+        });
+
+        DistributionSummary summary = registry.get(ResponseSizeMetricsFilter.METRIC_NAME)
+                .tag("uri", "/students/getStudent/{id}")
+                .tag("method", "GET")
+                .tag("status", "200")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(body.length, summary.totalAmount());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    // Test 2: Octets écrits via le Writer (encodage de la réponse)
+    @Test
+    void shouldRecordBytesWrittenThroughWriter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Depatment/getAllDepartment");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+
+        filter.doFilter(request, response, (req, res) -> res.getWriter().write("é"));
+
+        DistributionSummary summary = registry.get(ResponseSizeMetricsFilter.METRIC_NAME).tag("uri", "UNKNOWN").summary();
+        assertEquals(2, summary.totalAmount());
+        assertEquals("é", response.getContentAsString());
+    }
+}
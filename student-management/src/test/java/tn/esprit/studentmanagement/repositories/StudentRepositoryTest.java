@@ -0,0 +1,230 @@
+package tn.esprit.studentmanagement.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
+import tn.esprit.studentmanagement.dto.EnrollmentExportRow;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
+import tn.esprit.studentmanagement.entities.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StudentRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    private Statistics statistics;
+
+    private Long firstDepartmentId;
+    private Long firstStudentId;
+
+    @BeforeEach
+    void seed() {
+        Course course1 = new Course();
+        course1.setName("Algorithms");
+        course1.setCode("CS101");
+        course1.setCredit(3);
+        entityManager.persist(course1);
+        Course course2 = new Course();
+        course2.setName("Databases");
+        course2.setCode("CS201");
+        course2.setCredit(4);
+        entityManager.persist(course2);
+
+        for (int d = 0; d < 3; d++) {
+            Department department = new Department();
+            department.setName("Department " + d);
+            entityManager.persist(department);
+            if (firstDepartmentId == null) {
+                firstDepartmentId = department.getIdDepartment();
+            }
+            for (int i = 0; i < 4; i++) {
+                Student student = new Student();
+                student.setFirstName("First" + d + i);
+                student.setLastName("Last" + d + i);
+                student.setDepartment(department);
+                student.setEmail("student" + d + i + "@example.com");
+                student.setDateOfBirth(LocalDate.of(2000 + i, 1, 1));
+                entityManager.persist(student);
+                if (firstStudentId == null) {
+                    firstStudentId = student.getIdStudent();
+                }
+                for (Course course : List.of(course1, course2)) {
+                    Enrollment enrollment = new Enrollment();
+                    enrollment.setStudent(student);
+                    enrollment.setCourse(course);
+                    enrollment.setEnrollmentDate(LocalDate.of(2024, 9, 1));
+                    enrollment.setStatus(Status.ACTIVE);
+                    enrollment.setGrade(12.0);
+                    entityManager.persist(enrollment);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // Test 1: findAll charge les départements sans requête supplémentaire
+    @Test
+    void findAll_ShouldLoadDepartmentsInSingleStatement() {
+        List<Student> students = studentRepository.findAll();
+
+        assertEquals(12, students.size());
+        students.forEach(s -> assertNotNull(s.getDepartment().getName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 2: Vue summary en une requête
+    @Test
+    void findAllSummaries_ShouldUseSingleStatement() {
+        assertEquals(12, studentRepository.findAllSummaries().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 3: Vue with-department en une requête
+    @Test
+    void findAllWithDepartment_ShouldUseSingleStatement() {
+        assertTrue(studentRepository.findAllWithDepartment().stream().allMatch(s -> s.departmentName() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 4: Vue transcript (étudiant + département + inscriptions + cours) en une requête
+    @Test
+    void findAllWithTranscript_ShouldUseSingleStatement() {
+        List<StudentTranscript> transcripts = studentRepository.findAllWithTranscript().stream()
+                .map(StudentTranscript::from)
+                .toList();
+
+        assertEquals(12, transcripts.size());
+        transcripts.forEach(t -> assertEquals(2, t.enrollments().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 5: getAllEnrollments sans N+1 sur étudiant, département et cours
+    @Test
+    void enrollmentFindAll_ShouldLoadAssociationsInSingleStatement() {
+        List<Enrollment> enrollments = enrollmentRepository.findAll();
+
+        assertEquals(24, enrollments.size());
+        enrollments.forEach(e -> {
+            assertNotNull(e.getStudent().getDepartment().getName());
+            assertNotNull(e.getCourse().getCode());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 6: Recherche combinée préfixe de nom + département + intervalle de naissance
+    @Test
+    void search_ShouldCombineFilters() {
+        StudentSearchCriteria criteria = new StudentSearchCriteria("Last0", null, firstDepartmentId,
+                LocalDate.of(2001, 1, 1), LocalDate.of(2002, 12, 31));
+
+        Page<Student> page = studentRepository.findAll(StudentSpecifications.matching(criteria),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "lastName")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals("Last02", page.getContent().get(0).getLastName());
+        assertEquals("Last01", page.getContent().get(1).getLastName());
+    }
+
+    // Test 7: Recherche par email exact, caractères LIKE échappés dans le préfixe
+    @Test
+    void search_ShouldMatchEmailAndEscapeLikeWildcards() {
+        Page<Student> byEmail = studentRepository.findAll(StudentSpecifications.matching(
+                new StudentSearchCriteria(null, "student12@example.com", null, null, null)), PageRequest.of(0, 10));
+        Page<Student> wildcard = studentRepository.findAll(StudentSpecifications.matching(
+                new StudentSearchCriteria("%", null, null, null, null)), PageRequest.of(0, 10));
+
+        assertEquals(1, byEmail.getTotalElements());
+        assertEquals("First12", byEmail.getContent().get(0).getFirstName());
+        assertEquals(0, wildcard.getTotalElements());
+    }
+
+    // Test 8: Relevé d'un étudiant (département, inscriptions, cours) en une requête, moyenne pondérée
+    @Test
+    void findWithTranscriptById_ShouldUseSingleStatement() {
+        StudentTranscript transcript = studentRepository.findWithTranscriptById(firstStudentId)
+                .map(StudentTranscript::from)
+                .orElseThrow();
+
+        assertEquals("Department 0", transcript.departmentName());
+        assertEquals(2, transcript.enrollments().size());
+        assertEquals(12.0, transcript.gpa());
+        assertEquals(7, transcript.gpaCredits());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Test 9: Exports lus en flux, une requête chacun, sans entité gérée
+    @Test
+    void exportStreams_ShouldUseSingleStatementAndKeepContextEmpty() {
+        try (Stream<StudentWithDepartment> students = studentRepository.streamAllWithDepartment();
+             Stream<EnrollmentExportRow> enrollments = enrollmentRepository.streamAllForExport()) {
+            assertEquals(12, students.count());
+            assertEquals(24, enrollments.filter(row -> row.courseCode() != null).count());
+        }
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // Test 10: Départements avec nombre d'étudiants, une requête chacun, aucun étudiant chargé
+    @Test
+    void departmentSummaries_ShouldCountStudentsWithoutLoadingThem() {
+        List<DepartmentSummary> summaries = departmentRepository.findAllSummaries();
+        DepartmentSummary first = departmentRepository.findSummaryById(firstDepartmentId).orElseThrow();
+
+        assertEquals(3, summaries.size());
+        summaries.forEach(summary -> assertEquals(4, summary.studentCount()));
+        assertEquals("Department 0", first.name());
+        assertEquals(4, first.studentCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // Test 11: Étudiants d'un département par pages keyset, département chargé dans la même requête
+    @Test
+    void findDepartmentPage_ShouldPageByKeyset() {
+        List<Student> page1 = studentRepository.findDepartmentPage(firstDepartmentId, 0L, Limit.of(3));
+        List<Student> page2 = studentRepository.findDepartmentPage(firstDepartmentId, page1.get(2).getIdStudent(), Limit.of(3));
+
+        assertEquals(3, page1.size());
+        assertEquals(1, page2.size());
+        assertTrue(page1.get(2).getIdStudent() < page2.get(0).getIdStudent());
+        Stream.concat(page1.stream(), page2.stream())
+                .forEach(s -> assertEquals(firstDepartmentId, s.getDepartment().getIdDepartment()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,146 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete.StudentPolicy;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"})
+@Import({BulkDeleter.class, ResourceVersionTracker.class})
+class BulkDeleterTest {
+    // Deux tranches de BulkDeleter.CHUNK_SIZE
+    private static final int STUDENTS = 1001;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BulkDeleter bulkDeleter;
+
+    private Statistics statistics;
+    private Long scienceId;
+    private Long artsId;
+    private final List<Long> scienceStudents = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        scienceId = entityManager.persistAndGetId(department("Science"), Long.class);
+        artsId = entityManager.persistAndGetId(department("Arts"), Long.class);
+        Department science = entityManager.find(Department.class, scienceId);
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setFirstName("S" + i);
+            student.setLastName("Doe");
+            student.setDepartment(science);
+            scienceStudents.add(entityManager.persistAndGetId(student, Long.class));
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(student);
+            enrollment.setGrade(12.0);
+            enrollment.setStatus(Status.COMPLETED);
+            entityManager.persist(enrollment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // Test 1: Étudiants et inscriptions supprimés par lots : 3 ordres SQL par tranche de 1000 ids
+    @Test
+    void deleteStudents_ShouldDeleteEnrollmentsInChunks() {
+        // Act
+        BulkDeleter.Outcome outcome = bulkDeleter.deleteStudents(scienceStudents);
+
+        // Assert
+        assertEquals(new BulkDeleteReport(0, STUDENTS, 0, STUDENTS), outcome.report());
+        assertEquals(STUDENTS, outcome.removedSamples().size());
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(0L, count("select count(s) from Student s"));
+        assertEquals(0L, count("select count(e) from Enrollment e"));
+    }
+
+    // Test 2: Suppression par filtre : seuls les étudiants correspondants partent
+    @Test
+    void deleteStudentsMatching_ShouldDeleteOnlyMatchingStudents() {
+        // Arrange
+        Student other = new Student();
+        other.setFirstName("Jane");
+        other.setLastName("Roe");
+        entityManager.persistAndFlush(other);
+
+        // Act
+        BulkDeleter.Outcome outcome = bulkDeleter.deleteStudentsMatching(new StudentSearchCriteria(null, null, scienceId, null, null));
+
+        // Assert
+        assertEquals(STUDENTS, outcome.report().studentsDeleted());
+        assertEquals(1L, count("select count(s) from Student s"));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkDeleter.deleteStudentsMatching(new StudentSearchCriteria(null, null, null, null, null)));
+    }
+
+    // Test 3: RESTRICT refuse tant qu'il reste des étudiants ; DETACH les garde sans département
+    @Test
+    void deleteDepartments_ShouldRestrictOrDetachStudents() {
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bulkDeleter.deleteDepartments(List.of(scienceId), StudentPolicy.RESTRICT, null));
+
+        BulkDeleter.Outcome outcome = bulkDeleter.deleteDepartments(List.of(scienceId), StudentPolicy.DETACH, null);
+
+        assertEquals(new BulkDeleteReport(1, 0, STUDENTS, 0), outcome.report());
+        // Notes relues avant le détachement : de l'ancien département vers aucun
+        assertEquals(STUDENTS, outcome.movedSamples().size());
+        assertEquals(scienceId, outcome.movedSamples().get(0).before().idDepartment());
+        assertNull(outcome.movedSamples().get(0).after().idDepartment());
+        assertEquals(0L, count("select count(s) from Student s where s.department is not null"));
+        assertEquals(1L, entityManager.find(Student.class, scienceStudents.get(0)).getVersion());
+    }
+
+    // Test 4: REASSIGN déplace les étudiants, CASCADE les supprime avec leurs inscriptions
+    @Test
+    void deleteDepartments_ShouldReassignOrCascade() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkDeleter.deleteDepartments(List.of(scienceId), StudentPolicy.REASSIGN, scienceId));
+
+        BulkDeleter.Outcome reassigned = bulkDeleter.deleteDepartments(List.of(scienceId), StudentPolicy.REASSIGN, artsId);
+        assertEquals(STUDENTS, reassigned.movedSamples().size());
+        assertEquals(artsId, reassigned.movedSamples().get(0).after().idDepartment());
+        assertEquals((long) STUDENTS, count("select count(s) from Student s where s.department.idDepartment = " + artsId));
+
+        BulkDeleter.Outcome outcome = bulkDeleter.deleteDepartments(List.of(artsId), StudentPolicy.CASCADE, null);
+        assertEquals(new BulkDeleteReport(1, STUDENTS, 0, STUDENTS), outcome.report());
+        assertEquals(0L, count("select count(d) from Department d"));
+        assertEquals(0L, count("select count(e) from Enrollment e"));
+    }
+
+    private long count(String jpql) {
+        entityManager.clear();
+        return entityManager.getEntityManager().createQuery(jpql, Long.class).getSingleResult();
+    }
+
+    private static Department department(String name) {
+        Department department = new Department();
+        department.setName(name);
+        return department;
+    }
+}
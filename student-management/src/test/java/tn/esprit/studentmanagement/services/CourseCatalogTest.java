@@ -0,0 +1,139 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CourseCatalogTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseCatalog catalog = new CourseCatalog(courseRepository, Duration.ofMinutes(5));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Course course(Long id, String code) {
+        Course course = new Course();
+        course.setIdCourse(id);
+        course.setCode(code);
+        course.setName("Course " + code);
+        return course;
+    }
+
+    // Test 1: Chargement unique puis recherches en mémoire par id et par code (insensible à la casse)
+    @Test
+    void shouldLoadOnceAndServeLookupsFromMemory() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101"), course(2L, "MA201")));
+
+        assertEquals(2L, catalog.findByCode(" ma201 ").orElseThrow().getIdCourse());
+        assertEquals("CS101", catalog.findById(1L).orElseThrow().getCode());
+        assertTrue(catalog.findByCode("PH301").isEmpty());
+        assertEquals(2, catalog.findAll().size());
+
+        verify(courseRepository, times(1)).findAll();
+    }
+
+    // Test 2: Mise à jour du code et suppression reportées dans les deux index
+    @Test
+    void shouldApplyWritesToBothIndexes() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101")));
+
+        catalog.put(course(1L, "CS102"));
+        catalog.put(course(3L, "PH301"));
+        catalog.remove(3L);
+
+        assertTrue(catalog.findByCode("CS101").isEmpty());
+        assertEquals(1L, catalog.findByCode("CS102").orElseThrow().getIdCourse());
+        assertTrue(catalog.findById(3L).isEmpty());
+        assertTrue(catalog.findByCode("PH301").isEmpty());
+    }
+
+    // Test 3: Pagination triée par id
+    @Test
+    void shouldPageByAscendingId() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(3L, "C"), course(1L, "A"), course(2L, "B")));
+
+        PageResponse<Course> page = catalog.findPage(1, 2);
+
+        assertEquals(List.of(3L), page.content().stream().map(Course::getIdCourse).toList());
+        assertEquals(3, page.totalElements());
+        assertEquals(2, page.totalPages());
+    }
+
+    // Test 4: Rechargement complet après l'intervalle configuré
+    @Test
+    void shouldReloadAfterInterval() {
+        CourseCatalog expiring = new CourseCatalog(courseRepository, Duration.ZERO);
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101")), List.of(course(2L, "MA201")));
+
+        assertTrue(expiring.findByCode("CS101").isPresent());
+        assertTrue(expiring.findByCode("MA201").isPresent());
+        verify(courseRepository, times(2)).findAll();
+    }
+
+    // Test 5: Copies rendues et gardées : modifier un cours reçu ou écrit ne change pas le catalogue
+    @Test
+    void shouldHandOutCopies() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101")));
+        Course written = course(2L, "MA201");
+        catalog.put(written);
+
+        catalog.findById(1L).orElseThrow().setCapacity(0);
+        catalog.findAll().forEach(course -> course.setName("changed"));
+        written.setCode("XX999");
+
+        Course stored = catalog.findById(1L).orElseThrow();
+        assertNull(stored.getCapacity());
+        assertEquals("Course CS101", stored.getName());
+        assertEquals(2L, catalog.findByCode("MA201").orElseThrow().getIdCourse());
+        assertNotSame(catalog.findById(1L).orElseThrow(), catalog.findById(1L).orElseThrow());
+    }
+
+    // Test 6: Écriture dans une transaction appliquée au commit seulement
+    @Test
+    void shouldApplyTransactionalWritesAfterCommit() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalog.put(course(2L, "MA201"));
+        catalog.remove(1L);
+        assertTrue(catalog.findById(2L).isEmpty());
+        assertTrue(catalog.findById(1L).isPresent());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals("MA201", catalog.findById(2L).orElseThrow().getCode());
+        assertTrue(catalog.findById(1L).isEmpty());
+    }
+
+    // Test 7: Cours écrit par une autre instance : relu en base à la demande, sans rechargement complet
+    @Test
+    void shouldRefreshSingleCourseFromDatabase() {
+        when(courseRepository.findAll()).thenReturn(List.of(course(1L, "CS101")));
+        when(courseRepository.findById(2L)).thenReturn(Optional.of(course(2L, "MA201")));
+        catalog.findAll();
+
+        assertEquals("MA201", catalog.refresh(2L).orElseThrow().getCode());
+        assertTrue(catalog.refresh(1L).isEmpty());
+
+        assertEquals(2L, catalog.findByCode("MA201").orElseThrow().getIdCourse());
+        assertTrue(catalog.findById(1L).isEmpty());
+        verify(courseRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,103 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseServiceTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseCatalog courseCatalog;
+
+    @Mock
+    private EnrollmentAdmission enrollmentAdmission;
+
+    @InjectMocks
+    private CourseService courseService;
+
+    private Course createCourse(Long id, String code) {
+        Course course = new Course();
+        course.setIdCourse(id);
+        course.setCode(code);
+        course.setName("Algorithms");
+        course.setCredit(4);
+        return course;
+    }
+
+    // Test 1: Recherche par code servie par le catalogue, sans requête
+    @Test
+    void getCourseByCode_ShouldUseCatalog() {
+        Course course = createCourse(1L, "CS101");
+        when(courseCatalog.findByCode("CS101")).thenReturn(Optional.of(course));
+
+        assertSame(course, courseService.getCourseByCode("CS101"));
+        verifyNoInteractions(courseRepository);
+    }
+
+    // Test 2: Code inconnu
+    @Test
+    void getCourseByCode_ShouldThrow_WhenUnknown() {
+        when(courseCatalog.findByCode("XX999")).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> courseService.getCourseByCode("XX999"));
+    }
+
+    // Test 3: Sauvegarde en base puis report dans le catalogue
+    @Test
+    void saveCourse_ShouldUpdateCatalog() {
+        Course toSave = createCourse(null, "CS101");
+        Course saved = createCourse(1L, "CS101");
+        when(courseRepository.save(toSave)).thenReturn(saved);
+
+        Course result = courseService.saveCourse(toSave);
+
+        assertEquals(1L, result.getIdCourse());
+        verify(courseCatalog).put(saved);
+    }
+
+    // Test 4: Échec en base -> le catalogue n'est pas modifié
+    @Test
+    void saveCourse_ShouldNotTouchCatalog_WhenSaveFails() {
+        Course toSave = createCourse(null, "CS101");
+        when(courseRepository.save(toSave)).thenThrow(new RuntimeException("duplicate code"));
+
+        assertThrows(RuntimeException.class, () -> courseService.saveCourse(toSave));
+        verifyNoInteractions(courseCatalog);
+    }
+
+    // Test 5: Suppression reportée dans le catalogue et l'index d'admission
+    @Test
+    void deleteCourse_ShouldRemoveFromCatalog() {
+        courseService.deleteCourse(1L);
+
+        verify(courseRepository).deleteById(1L);
+        verify(courseCatalog).remove(1L);
+        verify(enrollmentAdmission).forget(List.of(1L));
+    }
+
+    // Test 6: Taille de page bornée, page négative refusée
+    @Test
+    void getCoursesPage_ShouldClampSize() {
+        PageResponse<Course> page = new PageResponse<>(List.of(), 0, CourseService.MAX_PAGE_SIZE, 0, 0);
+        when(courseCatalog.findPage(0, CourseService.MAX_PAGE_SIZE)).thenReturn(page);
+
+        assertSame(page, courseService.getCoursesPage(0, 10_000));
+        assertThrows(IllegalArgumentException.class, () -> courseService.getCoursesPage(-1, null));
+    }
+}
@@ -5,11 +5,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete;
+import tn.esprit.studentmanagement.dto.DepartmentBulkDelete.StudentPolicy;
+import tn.esprit.studentmanagement.dto.GradeSample;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -21,6 +32,21 @@ public class DepartmentServiceTest {
     
     @Mock
     private DepartmentRepository departmentRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private PartialUpdater partialUpdater;
+
+    @Mock
+    private BulkDeleter bulkDeleter;
+
+    @Mock
+    private IGradeStatisticsService gradeStatisticsService;
+
+    @Mock
+    private EnrollmentAdmission enrollmentAdmission;
     
     @InjectMocks
     private DepartmentService departmentService;
@@ -130,13 +156,14 @@ public class DepartmentServiceTest {
         Long departmentId = 1L;
         
         // Simule que la suppression fonctionne sans erreur
-        doNothing().when(departmentRepository).deleteById(departmentId);
+        when(bulkDeleter.deleteDepartments(List.of(departmentId), StudentPolicy.RESTRICT, null))
+            .thenReturn(new BulkDeleter.Outcome(new BulkDeleteReport(1, 0, 0, 0), List.of()));
         
         // Act
         departmentService.deleteDepartment(departmentId);
         
         // Assert
-        verify(departmentRepository, times(1)).deleteById(departmentId);
+        verify(bulkDeleter, times(1)).deleteDepartments(List.of(departmentId), StudentPolicy.RESTRICT, null);
     }
     
     @Test
@@ -145,14 +172,105 @@ public class DepartmentServiceTest {
         Long departmentId = 999L;
         
         // Simule une exception lors de la suppression
-        doThrow(new RuntimeException("Erreur de suppression"))
-            .when(departmentRepository).deleteById(departmentId);
+        when(bulkDeleter.deleteDepartments(List.of(departmentId), StudentPolicy.RESTRICT, null))
+            .thenThrow(new RuntimeException("Erreur de suppression"));
         
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             departmentService.deleteDepartment(departmentId);
         });
         
-        verify(departmentRepository, times(1)).deleteById(departmentId);
+        verify(bulkDeleter, times(1)).deleteDepartments(List.of(departmentId), StudentPolicy.RESTRICT, null);
+    }
+
+    @Test
+    public void testUpdateDepartment_WithStaleVersion() {
+        // Arrange
+        Department department = new Department();
+        department.setIdDepartment(1L);
+        when(departmentRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> {
+            departmentService.updateDepartment(department, 3L);
+        });
+        verify(departmentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPatchDepartment_ReturnsNextVersion() {
+        // Arrange
+        Map<String, Object> changes = Map.of("head", "Dr. Dupont");
+        when(partialUpdater.update(Department.class, "idDepartment", 1L, 4L, changes, DepartmentService.PATCHABLE_FIELDS))
+            .thenReturn(1);
+
+        // Act
+        long version = departmentService.patchDepartment(1L, changes, 4L);
+
+        // Assert
+        assertEquals(5L, version);
+        verify(departmentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testDeleteDepartments_ReassignMovesStatistics() {
+        // Arrange
+        DepartmentBulkDelete request = new DepartmentBulkDelete(List.of(1L, 2L), StudentPolicy.REASSIGN, 3L);
+        BulkDeleteReport report = new BulkDeleteReport(2, 0, 1, 0);
+        GradeSample before = new GradeSample(7L, 5L, 1L, 14.0, Status.COMPLETED);
+        GradeSample after = new GradeSample(7L, 5L, 3L, 14.0, Status.COMPLETED);
+        when(bulkDeleter.deleteDepartments(List.of(1L, 2L), StudentPolicy.REASSIGN, 3L))
+            .thenReturn(new BulkDeleter.Outcome(report, List.of(), List.of(new BulkDeleter.Move(before, after))));
+
+        // Act
+        BulkDeleteReport result = departmentService.deleteDepartments(request);
+
+        // Assert
+        assertEquals(report, result);
+        verify(gradeStatisticsService).recordChange(before, after);
+        verify(gradeStatisticsService, never()).rebuild();
+    }
+
+    @Test
+    public void testGetDepartmentStudents_ReturnsNextCursor_WhenMoreStudents() {
+        // Arrange
+        List<Student> rows = List.of(student(11L), student(12L), student(13L));
+        when(studentRepository.findDepartmentPage(1L, 10L, Limit.of(3)))
+                .thenReturn(rows);
+
+        // Act
+        CursorPage<Student> page = departmentService.getDepartmentStudents(1L, CursorPage.encodeCursor(10L), 2);
+
+        // Assert
+        assertEquals(2, page.content().size());
+        assertEquals(CursorPage.encodeCursor(12L), page.next());
+        verify(departmentRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetDepartmentStudents_ThrowsNotFound_WhenDepartmentMissing() {
+        // Arrange
+        when(studentRepository.findDepartmentPage(eq(99L), eq(0L), any(Limit.class)))
+                .thenReturn(List.of());
+        when(departmentRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> departmentService.getDepartmentStudents(99L, null, null));
+    }
+
+    @Test
+    public void testGetDepartmentSummary_ThrowsNotFound_WhenMissing() {
+        // Arrange
+        when(departmentRepository.findSummaryById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> departmentService.getDepartmentSummary(99L));
+    }
+
+    private static Student student(Long id) {
+        Student student = new Student();
+        student.setIdStudent(id);
+        return student;
     }
 }
+
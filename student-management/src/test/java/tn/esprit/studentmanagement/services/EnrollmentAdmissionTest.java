@@ -0,0 +1,252 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EnrollmentAdmissionTest {
+    private static final int THREADS = 16;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseCatalog courseCatalog = mock(CourseCatalog.class);
+    private final EnrollmentAdmission admission = new EnrollmentAdmission(enrollmentRepository, courseRepository,
+            courseCatalog, registry, Duration.ofMinutes(5));
+
+    @BeforeEach
+    void courses() {
+        when(courseCatalog.findById(1L)).thenReturn(Optional.of(course(1L, 100)));
+        when(courseCatalog.findById(2L)).thenReturn(Optional.of(course(2L, null)));
+        when(enrollmentRepository.findStudentIdsByCourse(anyLong())).thenReturn(List.of());
+        when(courseRepository.takeSeats(anyLong(), anyInt())).thenReturn(1);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Course course(Long id, Integer capacity) {
+        Course course = new Course();
+        course.setIdCourse(id);
+        course.setCapacity(capacity);
+        return course;
+    }
+
+    private double count(String outcome) {
+        return registry.get(EnrollmentAdmission.METRIC).tag("outcome", outcome).counter().count();
+    }
+
+    // Lance toutes les admissions en même temps ; renvoie le nombre d'admissions acceptées
+    private int admitConcurrently(List<long[]> pairs) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (long[] pair : pairs) {
+                results.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    try {
+                        admission.admit(pair[0], pair[1]);
+                        return true;
+                    } catch (EnrollmentRejectedException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                admitted += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            return admitted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test 1: 1000 étudiants pour 100 places : exactement 100 admis, chargement du cours une seule fois
+    @Test
+    void admit_ShouldNeverExceedCapacity_UnderContention() throws Exception {
+        List<long[]> pairs = new ArrayList<>();
+        for (long student = 1; student <= 1000; student++) {
+            pairs.add(new long[]{student, 1L});
+        }
+
+        assertEquals(100, admitConcurrently(pairs));
+        assertEquals(100, count("admitted"));
+        assertEquals(900, count("course_full"));
+        verify(enrollmentRepository, times(1)).findStudentIdsByCourse(1L);
+    }
+
+    // Test 2: Même étudiant soumis 500 fois en parallèle (cours illimité) : une seule admission
+    @Test
+    void admit_ShouldAdmitSamePairOnce_UnderContention() throws Exception {
+        List<long[]> pairs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            pairs.add(new long[]{7L, 2L});
+        }
+
+        assertEquals(1, admitConcurrently(pairs));
+        assertEquals(499, count("already_enrolled"));
+    }
+
+    // Test 3: Inscriptions existantes chargées depuis la base (doublon et places déjà prises)
+    @Test
+    void admit_ShouldAccountForExistingEnrollments() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 2)));
+        when(enrollmentRepository.findStudentIdsByCourse(3L)).thenReturn(Arrays.asList(10L, null));
+
+        EnrollmentRejectedException duplicate = assertThrows(EnrollmentRejectedException.class, () -> admission.admit(10L, 3L));
+        EnrollmentRejectedException full = assertThrows(EnrollmentRejectedException.class, () -> admission.admit(11L, 3L));
+
+        assertEquals(EnrollmentRejectedException.Reason.ALREADY_ENROLLED, duplicate.getReason());
+        assertEquals(EnrollmentRejectedException.Reason.COURSE_FULL, full.getReason());
+    }
+
+    // Test 4: Une place libérée est réattribuée ; forget() recharge le cours depuis la base
+    @Test
+    void release_ShouldFreeSeat_AndForgetShouldReload() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        admission.admit(10L, 3L);
+        assertThrows(EnrollmentRejectedException.class, () -> admission.admit(11L, 3L));
+
+        admission.release(10L, 3L);
+        admission.admit(11L, 3L);
+
+        when(enrollmentRepository.findStudentIdsByCourse(3L)).thenReturn(List.of());
+        admission.forget(List.of(3L));
+        admission.admit(12L, 3L);
+        verify(enrollmentRepository, times(2)).findStudentIdsByCourse(3L);
+    }
+
+    // Test 5: Abandon ou retrait rend la place ; une réactivation en reprend une, refusée si le cours est plein
+    @Test
+    void statusChanged_ShouldReleaseOnDropAndReadmitOnReactivation() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        admission.admit(10L, 3L);
+
+        admission.statusChanged(10L, 3L, Status.ACTIVE, Status.DROPPED);
+        admission.admit(11L, 3L);
+        EnrollmentRejectedException full = assertThrows(EnrollmentRejectedException.class,
+                () -> admission.statusChanged(10L, 3L, Status.WITHDRAWN, Status.ACTIVE));
+        admission.statusChanged(11L, 3L, Status.ACTIVE, Status.COMPLETED);
+
+        assertEquals(EnrollmentRejectedException.Reason.COURSE_FULL, full.getReason());
+        assertThrows(EnrollmentRejectedException.class, () -> admission.admit(12L, 3L));
+    }
+
+    // Test 6: Cours rempli par une autre instance : l'UPDATE conditionnel refuse, la réservation en mémoire est rendue
+    @Test
+    void admit_ShouldBeRefusedByDatabase_WhenSeatsTakenElsewhere() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        when(courseRepository.takeSeats(3L, 1)).thenReturn(0, 1);
+        when(courseRepository.existsById(3L)).thenReturn(true);
+
+        EnrollmentRejectedException full = assertThrows(EnrollmentRejectedException.class, () -> admission.admit(10L, 3L));
+        admission.admit(11L, 3L);
+
+        assertEquals(EnrollmentRejectedException.Reason.COURSE_FULL, full.getReason());
+        verify(courseRepository, times(2)).takeSeats(3L, 1);
+    }
+
+    // Test 7: Dans une transaction, place rendue en mémoire au commit seulement, réservation rendue au rollback
+    @Test
+    void releaseAndAdmit_ShouldFollowTransactionOutcome() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        admission.admit(10L, 3L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        admission.release(10L, 3L);
+        verify(courseRepository).releaseSeat(3L);
+        assertThrows(EnrollmentRejectedException.class, () -> admission.admit(11L, 3L));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        admission.admit(11L, 3L);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        admission.admit(12L, 3L);
+    }
+
+    // Test 8: Index rechargé depuis la base une fois reload-interval écoulé
+    @Test
+    void admit_ShouldReloadCourseAfterInterval() {
+        EnrollmentAdmission reloading = new EnrollmentAdmission(enrollmentRepository, courseRepository, courseCatalog,
+                registry, Duration.ZERO);
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        when(enrollmentRepository.findStudentIdsByCourse(3L)).thenReturn(List.of(), List.of(20L));
+
+        reloading.admit(10L, 3L);
+        assertThrows(EnrollmentRejectedException.class, () -> reloading.admit(20L, 3L));
+
+        verify(enrollmentRepository, times(2)).findStudentIdsByCourse(3L);
+    }
+
+    // Test 9: Cours créé par une autre instance, absent du catalogue : relu en base, place prise en base
+    @Test
+    void admit_ShouldCheckDatabase_WhenCourseMissingFromCatalog() {
+        when(courseCatalog.refresh(3L)).thenReturn(Optional.of(course(3L, 1)));
+        when(courseRepository.takeSeats(4L, 1)).thenReturn(0);
+        when(courseRepository.existsById(4L)).thenReturn(true);
+
+        admission.admit(10L, 3L);
+        EnrollmentRejectedException full = assertThrows(EnrollmentRejectedException.class, () -> admission.admit(10L, 4L));
+
+        assertEquals(EnrollmentRejectedException.Reason.COURSE_FULL, full.getReason());
+        verify(courseRepository).takeSeats(3L, 1);
+        verify(courseRepository).takeSeats(4L, 1);
+        assertThrows(EnrollmentRejectedException.class, () -> admission.admit(10L, 3L));
+    }
+
+    // Test 10: Index plein mais capacité augmentée sur une autre instance : la base confirme, le cours est relu
+    @Test
+    void admit_ShouldAskDatabase_BeforeRefusingFullCourse() {
+        when(courseCatalog.findById(3L)).thenReturn(Optional.of(course(3L, 1)));
+        when(courseRepository.hasFreeSeat(3L)).thenReturn(Optional.of(true));
+        admission.admit(10L, 3L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        admission.admit(11L, 3L);
+        verify(courseCatalog).refresh(3L);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        when(enrollmentRepository.findStudentIdsByCourse(3L)).thenReturn(List.of(10L, 11L));
+        assertThrows(EnrollmentRejectedException.class, () -> admission.admit(11L, 3L));
+        verify(courseRepository, times(2)).takeSeats(3L, 1);
+        verify(enrollmentRepository, times(2)).findStudentIdsByCourse(3L);
+    }
+}
@@ -0,0 +1,202 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Les lots sont validés dans leurs propres transactions : le test ne doit pas en ouvrir une
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EnrollmentBulkImporterTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private Long studentId;
+    private Long courseId;
+    // Notes remises pour les statistiques, une par ligne écrite
+    private final List<GradeSample> imported = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        studentId = newStudent("John");
+        Course course = new Course();
+        course.setCode("CS101");
+        courseId = courseRepository.save(course).getIdCourse();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+        courseRepository.deleteAllInBatch();
+    }
+
+    private Long newStudent(String firstName) {
+        Student student = new Student();
+        student.setFirstName(firstName);
+        return studentRepository.save(student).getIdStudent();
+    }
+
+    private EnrollmentBulkImporter importer(int batchSize) {
+        CourseCatalog catalog = new CourseCatalog(courseRepository, Duration.ofMinutes(5));
+        return new EnrollmentBulkImporter(new ObjectMapper().findAndRegisterModules(), entityManager, catalog,
+                new EnrollmentAdmission(enrollmentRepository, courseRepository, catalog, new SimpleMeterRegistry(),
+                        Duration.ofMinutes(5)),
+                transactionManager, batchSize, 10);
+    }
+
+    private InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String record(Long student, Long course) {
+        return "{\"enrollmentDate\":\"2024-09-01\",\"grade\":14.5,\"status\":\"ACTIVE\","
+                + "\"student\":{\"idStudent\":" + student + "},\"course\":{\"idCourse\":" + course + "}}";
+    }
+
+    // Test 1: Tableau JSON importé en plusieurs lots
+    @Test
+    void importEnrollments_ShouldImportJsonArrayInBatches() throws Exception {
+        String json = "[" + record(studentId, courseId) + "," + record(newStudent("Jane"), courseId) + ","
+                + record(newStudent("Jack"), courseId) + "]";
+
+        BulkImportReport report = importer(2).importEnrollments(body(json), imported::add);
+
+        assertEquals(3, report.received());
+        assertEquals(3, report.imported());
+        assertEquals(0, report.failed());
+        assertEquals(3, enrollmentRepository.count());
+        assertEquals(3, imported.size());
+        assertEquals(new GradeSample(studentId, courseId, null, 14.5, Status.ACTIVE), imported.get(0));
+        assertEquals(3, courseRepository.findById(courseId).orElseThrow().getSeatsTaken());
+    }
+
+    // Test 2: NDJSON avec des enregistrements invalides rapportés sans interrompre l'import
+    @Test
+    void importEnrollments_ShouldReportPerRecordFailures() throws Exception {
+        String ndjson = record(studentId, courseId) + "\n"
+                + "{\"status\":\"UNKNOWN\",\"student\":{\"idStudent\":" + studentId + "}}\n"
+                + "{\"grade\":10.0,\"student\":{\"idStudent\":" + studentId + "}}\n"
+                + record(999_999L, courseId) + "\n"
+                + record(newStudent("Jane"), courseId) + "\n";
+
+        BulkImportReport report = importer(10).importEnrollments(body(ndjson), imported::add);
+
+        assertEquals(5, report.received());
+        assertEquals(2, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(1, report.failures().get(0).index());
+        assertEquals(2, report.failures().get(1).index());
+        assertEquals(3, report.failures().get(2).index());
+        assertEquals(2, enrollmentRepository.count());
+        // Le lot annulé (étudiant inconnu) ne remet rien : seules les lignes rejouées avec succès comptent
+        assertEquals(2, imported.size());
+    }
+
+    // Test 3: Cours désigné par son code, résolu par le catalogue
+    @Test
+    void importEnrollments_ShouldResolveCourseByCode() throws Exception {
+        String ndjson = "{\"grade\":12.0,\"student\":{\"idStudent\":" + studentId + "},\"course\":{\"code\":\"cs101\"}}\n"
+                + "{\"grade\":12.0,\"student\":{\"idStudent\":" + studentId + "},\"course\":{\"code\":\"NOPE\"}}\n";
+
+        BulkImportReport report = importer(10).importEnrollments(body(ndjson), imported::add);
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals("Unknown course.code NOPE", report.failures().get(0).reason());
+        assertEquals(courseId, enrollmentRepository.findAll().get(0).getCourse().getIdCourse());
+    }
+
+    // Test 4: Couple (étudiant, cours) déjà inscrit : refusé à l'admission, le reste du lot passe
+    @Test
+    void importEnrollments_ShouldReportDuplicateEnrollments() throws Exception {
+        String ndjson = record(studentId, courseId) + "\n"
+                + record(studentId, courseId) + "\n"
+                + record(newStudent("Jane"), courseId) + "\n";
+
+        BulkImportReport report = importer(10).importEnrollments(body(ndjson), imported::add);
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(1, report.failures().get(0).index());
+        assertEquals(2, enrollmentRepository.count());
+    }
+
+    // Test 5: Capacité du cours respectée ; un abandon importé ne prend pas de place et une ligne
+    // refusée par la base rend la sienne
+    @Test
+    void importEnrollments_ShouldRespectCourseCapacity() throws Exception {
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        course.setCapacity(2);
+        courseRepository.save(course);
+        EnrollmentBulkImporter importer = importer(10);
+
+        BulkImportReport first = importer.importEnrollments(body(record(999_999L, courseId) + "\n"
+                + record(studentId, courseId).replace("ACTIVE", "DROPPED") + "\n"
+                + record(newStudent("Jane"), courseId) + "\n"), imported::add);
+        BulkImportReport second = importer.importEnrollments(body(record(newStudent("Jack"), courseId) + "\n"
+                + record(newStudent("Jill"), courseId) + "\n"), imported::add);
+
+        assertEquals(2, first.imported());
+        assertEquals(0, first.failures().get(0).index());
+        assertEquals(1, second.imported());
+        assertEquals(1, second.failures().get(0).index());
+        assertTrue(second.failures().get(0).reason().contains("is full"));
+        assertEquals(3, enrollmentRepository.count());
+    }
+
+    // Test 6: Places prises en base par une autre instance : le lot est refusé par l'UPDATE conditionnel
+    @Test
+    void importEnrollments_ShouldRespectSeatsTakenInDatabase() throws Exception {
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        course.setCapacity(1);
+        courseRepository.save(course);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> courseRepository.takeSeats(courseId, 1));
+
+        BulkImportReport report = importer(10).importEnrollments(body(record(studentId, courseId) + "\n"), imported::add);
+
+        assertEquals(0, report.imported());
+        assertTrue(report.failures().get(0).reason().contains("is full"));
+        assertEquals(0, enrollmentRepository.count());
+        assertEquals(1, courseRepository.findById(courseId).orElseThrow().getSeatsTaken());
+    }
+}
@@ -2,19 +2,32 @@ package tn.esprit.studentmanagement.services;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.dto.BulkImportReport;
+import tn.esprit.studentmanagement.dto.EnrollmentGradeSample;
+import tn.esprit.studentmanagement.dto.GradePost;
+import tn.esprit.studentmanagement.dto.GradeSample;
 import tn.esprit.studentmanagement.entities.Course;
 import tn.esprit.studentmanagement.entities.Enrollment;
 import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +37,27 @@ public class EnrollmentServiceTest {
     
     @Mock
     private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private EnrollmentBulkImporter enrollmentBulkImporter;
+
+    @Mock
+    private IGradeStatisticsService gradeStatisticsService;
+
+    @Mock
+    private CourseCatalog courseCatalog;
+
+    @Mock
+    private IStudentService studentService;
+
+    @Mock
+    private PartialUpdater partialUpdater;
+
+    @Mock
+    private EnrollmentAdmission enrollmentAdmission;
+
+    @Mock
+    private GradeWriteBehind gradeWriteBehind;
     
     @InjectMocks
     private EnrollmentService enrollmentService;
@@ -68,6 +102,7 @@ public class EnrollmentServiceTest {
         List<Enrollment> expectedEnrollments = Arrays.asList(enrollment1, enrollment2);
         
         when(enrollmentRepository.findAll()).thenReturn(expectedEnrollments);
+        when(gradeWriteBehind.withPending(expectedEnrollments)).thenReturn(expectedEnrollments);
         
         // Act
         List<Enrollment> actualEnrollments = enrollmentService.getAllEnrollments();
@@ -192,4 +227,339 @@ public class EnrollmentServiceTest {
         
         verify(enrollmentRepository, times(1)).deleteById(enrollmentId);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testImportEnrollments_DelegatesToBulkImporter() throws Exception {
+        // Arrange
+        InputStream input = new ByteArrayInputStream("[]".getBytes());
+        BulkImportReport report = new BulkImportReport(0, 0, 0, List.of(), false);
+        when(enrollmentBulkImporter.importEnrollments(eq(input), any())).thenReturn(report);
+
+        // Act
+        BulkImportReport result = enrollmentService.importEnrollments(input);
+
+        // Assert
+        assertSame(report, result);
+        verify(enrollmentBulkImporter).importEnrollments(eq(input), any());
+    }
+
+    @Test
+    public void testSaveEnrollment_UpdatesGradeStatistics() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(1L), createMockCourse(1L));
+        GradeSample before = new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE);
+        GradeSample after = new GradeSample(1L, 1L, 1L, 15.0, Status.COMPLETED);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(before), Optional.of(after));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        verify(gradeStatisticsService).recordChange(before, after);
+    }
+
+    @Test
+    public void testDeleteEnrollment_RemovesFromGradeStatistics() {
+        // Arrange
+        GradeSample before = new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(before));
+
+        // Act
+        enrollmentService.deleteEnrollment(1L);
+
+        // Assert
+        verify(gradeStatisticsService).recordChange(before, null);
+    }
+
+    @Test
+    public void testImportEnrollments_RecordsImportedGrades() throws Exception {
+        // Arrange
+        InputStream input = new ByteArrayInputStream("[]".getBytes());
+        GradeSample imported = new GradeSample(1L, 2L, 3L, 14.5, Status.ACTIVE);
+        when(enrollmentBulkImporter.importEnrollments(eq(input), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<GradeSample>>getArgument(1).accept(imported);
+            return new BulkImportReport(1, 1, 0, List.of(), false);
+        });
+
+        // Act
+        enrollmentService.importEnrollments(input);
+
+        // Assert
+        verify(gradeStatisticsService).recordChange(null, imported);
+        verify(gradeStatisticsService, never()).rebuild();
+    }
+
+    @Test
+    public void testSaveEnrollment_ResolvesCourseByCode() {
+        // Arrange
+        Course byCode = new Course();
+        byCode.setCode("CS101");
+        Enrollment enrollment = createMockEnrollment(null, createMockStudent(1L), byCode);
+        Course known = createMockCourse(7L);
+        when(courseCatalog.findByCode("CS101")).thenReturn(Optional.of(known));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        Enrollment result = enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        assertSame(known, result.getCourse());
+    }
+
+    @Test
+    public void testSaveEnrollment_UnknownCourseCode() {
+        // Arrange
+        Course byCode = new Course();
+        byCode.setCode("XX999");
+        Enrollment enrollment = createMockEnrollment(null, createMockStudent(1L), byCode);
+        when(courseCatalog.findByCode("XX999")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.saveEnrollment(enrollment));
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveEnrollment_EvictsTranscriptsOfBothStudents() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(2L), createMockCourse(1L));
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(
+                Optional.of(new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE)),
+                Optional.of(new GradeSample(2L, 1L, 1L, 12.0, Status.ACTIVE)));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        verify(studentService).evictTranscript(1L);
+        verify(studentService).evictTranscript(2L);
+    }
+
+    @Test
+    public void testSaveEnrollment_EvictsTranscriptAfterCommitOnly() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(1L), createMockCourse(1L));
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE)));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            enrollmentService.saveEnrollment(enrollment);
+
+            // Assert
+            verify(studentService, never()).evictTranscript(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(studentService).evictTranscript(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testPatchEnrollment_UpdatesGradeStatistics() {
+        // Arrange
+        Map<String, Object> changes = Map.of("grade", 16.5);
+        GradeSample before = new GradeSample(2L, 1L, 1L, 12.0, Status.ACTIVE);
+        GradeSample after = new GradeSample(2L, 1L, 1L, 16.5, Status.ACTIVE);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(before), Optional.of(after));
+        when(partialUpdater.update(Enrollment.class, "idEnrollment", 1L, 3L, changes, EnrollmentService.PATCHABLE_FIELDS))
+                .thenReturn(1);
+
+        // Act
+        long version = enrollmentService.patchEnrollment(1L, changes, 3L);
+
+        // Assert
+        assertEquals(4L, version);
+        verify(gradeStatisticsService).recordChange(before, after);
+        verify(studentService).evictTranscript(2L);
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveEnrollment_RejectedByAdmission() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(null, createMockStudent(1L), createMockCourse(1L));
+        doThrow(new EnrollmentRejectedException(EnrollmentRejectedException.Reason.COURSE_FULL, "Course 1 is full"))
+                .when(enrollmentAdmission).admit(1L, 1L);
+
+        // Act & Assert
+        assertThrows(EnrollmentRejectedException.class, () -> enrollmentService.saveEnrollment(enrollment));
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveEnrollment_LeavesSeatToRollback_WhenInsertFails() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(null, createMockStudent(1L), createMockCourse(1L));
+        when(enrollmentRepository.save(enrollment)).thenThrow(new DataIntegrityViolationException("uk_enrollment_student_course"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> enrollmentService.saveEnrollment(enrollment));
+        verify(enrollmentAdmission).admit(1L, 1L);
+        verify(enrollmentAdmission, never()).release(any(), any());
+    }
+
+    @Test
+    public void testSaveEnrollment_MovesSeat_WhenCourseChanges() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(1L), createMockCourse(2L));
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(
+                Optional.of(new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE)),
+                Optional.of(new GradeSample(1L, 2L, 1L, 12.0, Status.ACTIVE)));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        verify(enrollmentAdmission).admit(1L, 2L);
+        verify(enrollmentAdmission).release(1L, 1L);
+    }
+
+    @Test
+    public void testSaveEnrollment_SkipsAdmission_WhenPairUnchanged() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(1L), createMockCourse(1L));
+        GradeSample sample = new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(sample));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        verifyNoInteractions(enrollmentAdmission);
+    }
+
+    @Test
+    public void testSaveEnrollment_ReleasesSeat_WhenDropped() {
+        // Arrange
+        Enrollment enrollment = createMockEnrollment(1L, createMockStudent(1L), createMockCourse(1L));
+        enrollment.setStatus(Status.DROPPED);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(new GradeSample(1L, 1L, 1L, 12.0, Status.ACTIVE)));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        enrollmentService.saveEnrollment(enrollment);
+
+        // Assert
+        verify(enrollmentAdmission, never()).admit(any(), any());
+        verify(enrollmentAdmission).release(1L, 1L);
+    }
+
+    @Test
+    public void testPatchEnrollment_ReportsStatusChangeToAdmission() {
+        // Arrange
+        Map<String, Object> changes = Map.of("status", "WITHDRAWN");
+        GradeSample before = new GradeSample(2L, 1L, 1L, 12.0, Status.ACTIVE);
+        GradeSample after = new GradeSample(2L, 1L, 1L, 12.0, Status.WITHDRAWN);
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(before), Optional.of(after));
+        when(partialUpdater.update(Enrollment.class, "idEnrollment", 1L, 3L, changes, EnrollmentService.PATCHABLE_FIELDS))
+                .thenReturn(1);
+
+        // Act
+        enrollmentService.patchEnrollment(1L, changes, 3L);
+
+        // Assert
+        verify(enrollmentAdmission).statusChanged(2L, 1L, Status.ACTIVE, Status.WITHDRAWN);
+    }
+
+    @Test
+    public void testDeleteEnrollment_ReleasesSeat() {
+        // Arrange
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(new GradeSample(2L, 3L, 1L, 12.0, Status.ACTIVE)));
+
+        // Act
+        enrollmentService.deleteEnrollment(1L);
+
+        // Assert
+        verify(enrollmentAdmission).release(2L, 3L);
+    }
+
+    @Test
+    public void testPostGrades_JournalsGrades_WhenEnrollmentsExist() throws Exception {
+        // Arrange
+        List<GradePost> grades = List.of(new GradePost(1L, 15.5, null), new GradePost(2L, 12.0, null));
+        when(enrollmentRepository.findExistingIds(anyList())).thenReturn(List.of(1L, 2L));
+
+        // Act
+        enrollmentService.postGrades(grades);
+
+        // Assert
+        verify(gradeWriteBehind).post(grades);
+        verify(enrollmentRepository, never()).save(any());
+        verifyNoInteractions(enrollmentAdmission);
+    }
+
+    @Test
+    public void testPostGrades_AdmitsStatusChanges_BeforeJournaling() throws Exception {
+        // Arrange
+        List<GradePost> grades = List.of(new GradePost(1L, 15.5, Status.COMPLETED), new GradePost(2L, null, Status.ACTIVE));
+        when(enrollmentRepository.findGradeSamplesByIds(anyList())).thenReturn(List.of(
+                new EnrollmentGradeSample(1L, 4L, 5L, 6L, null, Status.ACTIVE),
+                new EnrollmentGradeSample(2L, 7L, 8L, 6L, 11.0, Status.DROPPED)));
+
+        // Act
+        enrollmentService.postGrades(grades);
+
+        // Assert
+        InOrder order = inOrder(gradeWriteBehind, enrollmentAdmission);
+        order.verify(gradeWriteBehind).flushIfPending(1L);
+        order.verify(gradeWriteBehind).flushIfPending(2L);
+        order.verify(enrollmentAdmission).statusChanged(4L, 5L, Status.ACTIVE, Status.COMPLETED);
+        order.verify(enrollmentAdmission).statusChanged(7L, 8L, Status.DROPPED, Status.ACTIVE);
+        order.verify(gradeWriteBehind).post(grades);
+    }
+
+    @Test
+    public void testPostGrades_PostsNothing_WhenReactivatedCourseIsFull() throws Exception {
+        // Arrange
+        when(enrollmentRepository.findGradeSamplesByIds(anyList())).thenReturn(List.of(
+                new EnrollmentGradeSample(2L, 7L, 8L, 6L, 11.0, Status.DROPPED)));
+        doThrow(new EnrollmentRejectedException(EnrollmentRejectedException.Reason.COURSE_FULL, "Course 8 is full"))
+                .when(enrollmentAdmission).statusChanged(7L, 8L, Status.DROPPED, Status.ACTIVE);
+
+        // Act & Assert
+        assertThrows(EnrollmentRejectedException.class,
+                () -> enrollmentService.postGrades(List.of(new GradePost(2L, null, Status.ACTIVE))));
+        verify(gradeWriteBehind, never()).post(anyList());
+    }
+
+    @Test
+    public void testPostGrades_Throws_WhenEnrollmentUnknown() throws Exception {
+        // Arrange
+        when(enrollmentRepository.findExistingIds(anyList())).thenReturn(List.of(1L));
+
+        // Act & Assert
+        NoSuchElementException e = assertThrows(NoSuchElementException.class, () -> enrollmentService.postGrades(
+                List.of(new GradePost(1L, 15.5, null), new GradePost(99L, 12.0, null))));
+        assertTrue(e.getMessage().contains("99"));
+        verify(gradeWriteBehind, never()).post(anyList());
+    }
+
+    @Test
+    public void testPostGrades_Throws_WhenNothingToChange() throws Exception {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.postGrades(List.of(new GradePost(1L, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> enrollmentService.postGrades(List.of()));
+        verifyNoInteractions(enrollmentRepository);
+        verify(gradeWriteBehind, never()).post(anyList());
+    }
+
+    @Test
+    public void testPatchEnrollment_FlushesPendingGradeFirst() {
+        // Arrange
+        when(enrollmentRepository.findGradeSample(1L)).thenReturn(Optional.of(new GradeSample(2L, 3L, 1L, 12.0, Status.ACTIVE)));
+        when(partialUpdater.update(eq(Enrollment.class), eq("idEnrollment"), eq(1L), eq(4L), anyMap(), anySet())).thenReturn(1);
+
+        // Act
+        enrollmentService.patchEnrollment(1L, Map.of("status", "DROPPED"), 4L);
+
+        // Assert
+        InOrder order = inOrder(gradeWriteBehind, partialUpdater);
+        order.verify(gradeWriteBehind).flushIfPending(1L);
+        order.verify(partialUpdater).update(eq(Enrollment.class), eq("idEnrollment"), eq(1L), eq(4L), anyMap(), anySet());
+    }
+}
@@ -0,0 +1,165 @@
+package tn.esprit.studentmanagement.services;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.DepartmentSummary;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, StudentService.class})
+class EntityCacheTest {
+
+    @Autowired
+    private IStudentService studentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private StudentRepository studentRepository;
+
+    @MockBean
+    private PartialUpdater partialUpdater;
+
+    @MockBean
+    private IGradeStatisticsService gradeStatisticsService;
+
+    @MockBean
+    private RowExporter rowExporter;
+
+    @MockBean
+    private BulkDeleter bulkDeleter;
+
+    @MockBean
+    private EnrollmentAdmission enrollmentAdmission;
+
+    @MockBean
+    private ResourceVersionTracker versionTracker;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    private CacheStats studentStats() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.STUDENTS)).getNativeCache().stats();
+    }
+
+    // Test 1: Le deuxième appel est servi par le cache
+    @Test
+    void getStudentById_ShouldHitCache_OnSecondCall() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+        long hitsBefore = studentStats().hitCount();
+
+        // Act
+        studentService.getStudentById(1L);
+        studentService.getStudentById(1L);
+
+        // Assert
+        verify(studentRepository, times(1)).findById(1L);
+        assertEquals(hitsBefore + 1, studentStats().hitCount());
+    }
+
+    // Test 2: La sauvegarde invalide l'entrée
+    @Test
+    void saveStudent_ShouldEvictCachedEntry() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(2L);
+        when(studentRepository.findById(2L)).thenReturn(Optional.of(student));
+        when(studentRepository.save(student)).thenReturn(student);
+
+        // Act
+        studentService.getStudentById(2L);
+        studentService.saveStudent(student);
+        studentService.getStudentById(2L);
+
+        // Assert
+        verify(studentRepository, times(2)).findById(2L);
+    }
+
+    // Test 3: Un étudiant absent n'est pas mis en cache
+    @Test
+    void getStudentById_ShouldNotCacheMissingStudent() {
+        // Arrange
+        when(studentRepository.findById(3L)).thenReturn(Optional.empty());
+
+        // Act
+        studentService.getStudentById(3L);
+        studentService.getStudentById(3L);
+
+        // Assert
+        verify(studentRepository, times(2)).findById(3L);
+    }
+
+    // Test 4: Relevé en cache jusqu'à l'invalidation déclenchée par une inscription
+    @Test
+    void getStudentTranscript_ShouldStayCachedUntilEvicted() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(4L);
+        when(studentRepository.findWithTranscriptById(4L)).thenReturn(Optional.of(student));
+
+        // Act
+        studentService.getStudentTranscript(4L);
+        studentService.getStudentTranscript(4L);
+        studentService.evictTranscript(4L);
+        studentService.getStudentTranscript(4L);
+
+        // Assert
+        verify(studentRepository, times(2)).findWithTranscriptById(4L);
+    }
+
+    // Test 5: Un étudiant enregistré invalide les résumés de département (effectif changé)
+    @Test
+    void saveStudent_ShouldEvictDepartmentSummaries() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(5L);
+        when(studentRepository.save(student)).thenReturn(student);
+        cacheManager.getCache(CacheConfig.DEPARTMENTS).put(1L, new DepartmentSummary(1L, "Informatique", null, null, null, 0, 10));
+
+        // Act
+        studentService.saveStudent(student);
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.DEPARTMENTS).get(1L));
+    }
+
+    // Test 6: Étiquette HTTP avancée une fois l'entrée évincée, pas avant
+    @Test
+    void saveStudent_ShouldBumpTagAfterEviction() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(6L);
+        when(studentRepository.save(student)).thenReturn(student);
+        cacheManager.getCache(CacheConfig.STUDENTS).put(6L, student);
+        clearInvocations(versionTracker);
+        doAnswer(invocation -> {
+            assertNull(cacheManager.getCache(CacheConfig.STUDENTS).get(6L));
+            return null;
+        }).when(versionTracker).changed(Resource.STUDENT);
+
+        // Act
+        studentService.saveStudent(student);
+
+        // Assert
+        verify(versionTracker, atLeastOnce()).changed(Resource.STUDENT);
+    }
+}
@@ -0,0 +1,159 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.GradeStatistics;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GradeStatisticsServiceTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @InjectMocks
+    private GradeStatisticsService gradeStatisticsService;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Test 1: Ajouts incrémentaux -> moyenne, min, max, statuts et histogramme
+    @Test
+    void shouldAggregateAddedEnrollments() {
+        gradeStatisticsService.recordChange(null, new GradeSample(1L, 1L, 10L, 12.0, Status.COMPLETED));
+        gradeStatisticsService.recordChange(null, new GradeSample(1L, 1L, 10L, 16.5, Status.COMPLETED));
+        gradeStatisticsService.recordChange(null, new GradeSample(1L, 1L, 10L, null, Status.ACTIVE));
+
+        GradeStatistics stats = gradeStatisticsService.getCourseStatistics(1L);
+
+        assertEquals(3, stats.enrollments());
+        assertEquals(2, stats.graded());
+        assertEquals(14.25, stats.average());
+        assertEquals(12.0, stats.min());
+        assertEquals(16.5, stats.max());
+        assertEquals(2L, stats.statusCounts().get(Status.COMPLETED));
+        assertEquals(1L, stats.statusCounts().get(Status.ACTIVE));
+        assertEquals(List.of(new GradeStatistics.Bucket(12, 13, 1), new GradeStatistics.Bucket(16, 17, 1)), stats.histogram());
+        assertEquals(3, gradeStatisticsService.getDepartmentStatistics(10L).enrollments());
+    }
+
+    // Test 2: Mise à jour puis suppression -> min/max recalculés sans relire la base
+    @Test
+    void shouldApplyUpdatesAndRemovals() {
+        GradeSample low = new GradeSample(1L, 1L, 10L, 8.0, Status.FAILED);
+        GradeSample high = new GradeSample(1L, 1L, 10L, 18.0, Status.COMPLETED);
+        gradeStatisticsService.recordChange(null, low);
+        gradeStatisticsService.recordChange(null, high);
+
+        gradeStatisticsService.recordChange(low, new GradeSample(1L, 1L, 10L, 11.0, Status.COMPLETED));
+        gradeStatisticsService.recordChange(high, null);
+
+        GradeStatistics stats = gradeStatisticsService.getCourseStatistics(1L);
+        assertEquals(1, stats.enrollments());
+        assertEquals(11.0, stats.min());
+        assertEquals(11.0, stats.max());
+        assertEquals(11.0, stats.average());
+        assertNull(stats.statusCounts().get(Status.FAILED));
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    // Test 3: Changement de cours -> l'inscription passe d'un groupe à l'autre
+    @Test
+    void shouldMoveEnrollmentBetweenCourses() {
+        GradeSample before = new GradeSample(1L, 1L, 10L, 14.0, Status.ACTIVE);
+        gradeStatisticsService.recordChange(null, before);
+
+        gradeStatisticsService.recordChange(before, new GradeSample(1L, 2L, 10L, 14.0, Status.ACTIVE));
+
+        assertEquals(0, gradeStatisticsService.getCourseStatistics(1L).enrollments());
+        assertNull(gradeStatisticsService.getCourseStatistics(1L).average());
+        assertEquals(1, gradeStatisticsService.getCourseStatistics(2L).enrollments());
+        assertEquals(1, gradeStatisticsService.getDepartmentStatistics(10L).enrollments());
+    }
+
+    // Test 4: Rebuild -> remplace l'état courant par un parcours complet
+    @Test
+    void shouldRebuildFromRepository() {
+        gradeStatisticsService.recordChange(null, new GradeSample(1L, 9L, 9L, 1.0, Status.ACTIVE));
+        when(enrollmentRepository.streamAllGradeSamples()).thenReturn(Stream.of(
+                new GradeSample(1L, 1L, 10L, 10.0, Status.COMPLETED),
+                new GradeSample(1L, 2L, 10L, 20.0, Status.COMPLETED),
+                new GradeSample(1L, 2L, null, null, Status.DROPPED)));
+
+        long count = gradeStatisticsService.rebuild();
+
+        assertEquals(3, count);
+        assertEquals(List.of(1L, 2L), gradeStatisticsService.getAllCourseStatistics().stream().map(GradeStatistics::id).toList());
+        assertEquals(0, gradeStatisticsService.getCourseStatistics(9L).enrollments());
+        GradeStatistics department = gradeStatisticsService.getAllDepartmentStatistics().get(0);
+        assertEquals(10L, department.id());
+        assertEquals(15.0, department.average());
+        assertEquals(2, department.enrollments());
+    }
+
+    // Test 5: Écriture pendant le parcours -> rejouée sur le nouvel état au lieu d'être perdue
+    @Test
+    void shouldKeepChangesRecordedDuringRebuild() {
+        GradeSample added = new GradeSample(3L, 1L, 10L, 18.0, Status.COMPLETED);
+        when(enrollmentRepository.streamAllGradeSamples()).thenReturn(Stream.of(
+                new GradeSample(1L, 1L, 10L, 12.0, Status.COMPLETED),
+                new GradeSample(2L, 1L, 10L, 14.0, Status.COMPLETED)
+        ).peek(sample -> {
+            if (sample.idStudent() == 1L) {
+                gradeStatisticsService.recordChange(null, added);
+            }
+        }));
+
+        long count = gradeStatisticsService.rebuild();
+
+        assertEquals(2, count);
+        GradeStatistics stats = gradeStatisticsService.getCourseStatistics(1L);
+        assertEquals(3, stats.enrollments());
+        assertEquals(18.0, stats.max());
+
+        // Après le rebuild, plus rien n'est mis de côté : un changement n'est appliqué qu'une fois
+        gradeStatisticsService.recordChange(added, null);
+        assertEquals(2, gradeStatisticsService.getCourseStatistics(1L).enrollments());
+    }
+
+    // Test 6: Changement dans une transaction -> appliqué au commit, oublié au rollback
+    @Test
+    void shouldApplyTransactionalChangesAfterCommitOnly() {
+        TransactionSynchronizationManager.initSynchronization();
+        gradeStatisticsService.recordChange(null, new GradeSample(1L, 1L, 10L, 12.0, Status.COMPLETED));
+        gradeStatisticsService.recordChange(null, new GradeSample(2L, 1L, 10L, 14.0, Status.COMPLETED));
+        assertEquals(0, gradeStatisticsService.getCourseStatistics(1L).enrollments());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertEquals(2, gradeStatisticsService.getCourseStatistics(1L).enrollments());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        gradeStatisticsService.recordChange(null, new GradeSample(3L, 1L, 10L, 16.0, Status.COMPLETED));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(2, gradeStatisticsService.getCourseStatistics(1L).enrollments());
+    }
+}
@@ -0,0 +1,190 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.EnrollmentGradeSample;
+import tn.esprit.studentmanagement.dto.GradePost;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GradeWriteBehindTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final IGradeStatisticsService gradeStatisticsService = mock(IGradeStatisticsService.class);
+    private final IStudentService studentService = mock(IStudentService.class);
+    private final List<GradeWriteBehind> instances = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (GradeWriteBehind instance : instances) {
+            instance.close();
+        }
+    }
+
+    // Écriture en arrière-plan désactivée (intervalle d'une heure) : les tests appellent flush() eux-mêmes
+    @SuppressWarnings("unchecked")
+    private GradeWriteBehind start() throws Exception {
+        GradeWriteBehind writeBehind = new GradeWriteBehind(enrollmentRepository, jdbcTemplate,
+                mock(PlatformTransactionManager.class), gradeStatisticsService, studentService,
+                mock(ObjectProvider.class), new ResourceVersionTracker(), new SimpleMeterRegistry(),
+                journalDirectory, Duration.ofHours(1), 10_000);
+        instances.add(writeBehind);
+        return writeBehind;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.count();
+        }
+    }
+
+    private static Enrollment enrollment(Long id, Double grade) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setIdEnrollment(id);
+        enrollment.setGrade(grade);
+        enrollment.setStatus(Status.ACTIVE);
+        enrollment.setVersion(3);
+        return enrollment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> flushedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(GradeWriteBehind.UPDATE_SQL), rows.capture(), any(int[].class));
+        return rows.getValue();
+    }
+
+    // Test 1: Note journalisée et visible aussitôt, sans écriture en base
+    @Test
+    void post_ShouldJournalAndOverlayPendingGrade() throws Exception {
+        // Arrange
+        GradeWriteBehind writeBehind = start();
+        Enrollment cached = enrollment(1L, 10.0);
+
+        // Act
+        writeBehind.post(List.of(new GradePost(1L, 15.5, null)));
+        Enrollment read = writeBehind.withPending(cached);
+
+        // Assert
+        assertEquals(15.5, read.getGrade());
+        assertEquals(Status.ACTIVE, read.getStatus());
+        assertEquals(4, read.getVersion());
+        assertEquals(10.0, cached.getGrade());
+        Enrollment other = enrollment(2L, 10.0);
+        assertSame(other, writeBehind.withPending(other));
+        assertEquals(1, segmentCount());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Test 2: Postes successifs regroupés en une ligne, statistiques et relevé mis à jour après l'écriture
+    @Test
+    void flush_ShouldCoalescePostsIntoOneBatchedUpdate() throws Exception {
+        // Arrange
+        GradeWriteBehind writeBehind = start();
+        writeBehind.post(List.of(new GradePost(1L, 12.0, null)));
+        writeBehind.post(List.of(new GradePost(1L, 14.0, null), new GradePost(1L, null, Status.COMPLETED)));
+        when(enrollmentRepository.findGradeSamplesByIds(List.of(1L))).thenReturn(
+                List.of(new EnrollmentGradeSample(1L, 7L, 2L, 3L, 10.0, Status.ACTIVE)));
+
+        // Act
+        int flushed = writeBehind.flush();
+
+        // Assert
+        assertEquals(1, flushed);
+        List<Object[]> rows = flushedRows();
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[]{14.0, "COMPLETED", 1L}, rows.get(0));
+        verify(gradeStatisticsService).recordChange(new GradeSample(7L, 2L, 3L, 10.0, Status.ACTIVE),
+                new GradeSample(7L, 2L, 3L, 14.0, Status.COMPLETED));
+        verify(studentService).evictTranscript(7L);
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals(0, segmentCount());
+    }
+
+    // Test 3: Après un arrêt brutal, le journal est rejoué ; une ligne tronquée est ignorée
+    @Test
+    void start_ShouldReplayJournalLeftByCrash() throws Exception {
+        // Arrange
+        start().post(List.of(new GradePost(1L, 11.0, null), new GradePost(2L, 16.0, Status.COMPLETED)));
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.writeString(segment, "{\"idEnrollment\":3,\"gra", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+
+        // Act
+        GradeWriteBehind restarted = start();
+
+        // Assert
+        assertEquals(2, restarted.pendingCount());
+        assertEquals(11.0, restarted.withPending(enrollment(1L, 10.0)).getGrade());
+        assertEquals(Status.COMPLETED, restarted.withPending(enrollment(2L, 10.0)).getStatus());
+    }
+
+    // Test 4: Échec de l'écriture en base : les notes restent en attente et dans le journal
+    @Test
+    void flush_ShouldKeepPendingGrades_WhenUpdateFails() throws Exception {
+        // Arrange
+        GradeWriteBehind writeBehind = start();
+        writeBehind.post(List.of(new GradePost(1L, 12.0, null)));
+        when(enrollmentRepository.findGradeSamplesByIds(List.of(1L))).thenReturn(
+                List.of(new EnrollmentGradeSample(1L, 7L, 2L, 3L, 10.0, Status.ACTIVE)));
+        when(jdbcTemplate.batchUpdate(eq(GradeWriteBehind.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenThrow(new QueryTimeoutException("primary unavailable"))
+                .thenReturn(new int[]{1});
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, writeBehind::flush);
+        assertEquals(1, writeBehind.pendingCount());
+        assertEquals(1, segmentCount());
+        verifyNoInteractions(gradeStatisticsService);
+
+        assertEquals(1, writeBehind.flush());
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals(0, segmentCount());
+    }
+
+    // Test 5: Une écriture directe de l'inscription force d'abord l'écriture de sa note en attente
+    @Test
+    void flushIfPending_ShouldFlushOnlyWhenEnrollmentHasPendingGrade() throws Exception {
+        // Arrange
+        GradeWriteBehind writeBehind = start();
+        writeBehind.post(List.of(new GradePost(1L, 12.0, null)));
+        when(enrollmentRepository.findGradeSamplesByIds(anyCollection())).thenReturn(List.of());
+
+        // Act
+        writeBehind.flushIfPending(2L);
+        verifyNoInteractions(enrollmentRepository);
+        writeBehind.flushIfPending(1L);
+
+        // Assert : inscription supprimée entre-temps, aucune ligne à mettre à jour
+        assertTrue(flushedRows().isEmpty());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+}
@@ -0,0 +1,134 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PartialUpdater.class, ResourceVersionTracker.class, JacksonAutoConfiguration.class})
+class PartialUpdaterTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PartialUpdater partialUpdater;
+
+    private Statistics statistics;
+    private Long studentId;
+    private Long otherDepartmentId;
+
+    @BeforeEach
+    void seed() {
+        Department department = new Department();
+        department.setName("Computer Science");
+        entityManager.persist(department);
+        Department other = new Department();
+        other.setName("Mathematics");
+        otherDepartmentId = entityManager.persistAndGetId(other, Long.class);
+        Student student = new Student();
+        student.setFirstName("John");
+        student.setLastName("Doe");
+        student.setEmail("john.doe@example.com");
+        student.setDepartment(department);
+        studentId = entityManager.persistAndGetId(student, Long.class);
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // Test 1: Un seul UPDATE, seules les colonnes reçues changent et la version avance
+    @Test
+    void update_ShouldWriteOnlyGivenColumnsInOneStatement() {
+        // Act
+        int rows = partialUpdater.update(Student.class, "idStudent", studentId, 0L,
+                Map.of("email", "john@example.com", "dateOfBirth", "2001-05-04"), StudentService.PATCHABLE_FIELDS);
+
+        // Assert
+        assertEquals(1, rows);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Student reloaded = entityManager.find(Student.class, studentId);
+        assertEquals("john@example.com", reloaded.getEmail());
+        assertEquals(LocalDate.of(2001, 5, 4), reloaded.getDateOfBirth());
+        assertEquals("Doe", reloaded.getLastName());
+        assertEquals(1L, reloaded.getVersion());
+    }
+
+    // Test 2: Version attendue périmée : aucune ligne modifiée
+    @Test
+    void update_ShouldNotTouchRow_WhenVersionIsStale() {
+        // Act
+        int rows = partialUpdater.update(Student.class, "idStudent", studentId, 5L,
+                Map.of("email", "john@example.com"), StudentService.PATCHABLE_FIELDS);
+
+        // Assert
+        assertEquals(0, rows);
+        Student reloaded = entityManager.find(Student.class, studentId);
+        assertEquals("john.doe@example.com", reloaded.getEmail());
+        assertEquals(0L, reloaded.getVersion());
+    }
+
+    // Test 3: Association désignée par son id, sans charger le département
+    @Test
+    void update_ShouldSetForeignKey_FromAssociationId() {
+        // Act
+        int rows = partialUpdater.update(Student.class, "idStudent", studentId, null,
+                Map.of("department", Map.of("idDepartment", otherDepartmentId)), StudentService.PATCHABLE_FIELDS);
+
+        // Assert
+        assertEquals(1, rows);
+        assertEquals(otherDepartmentId, entityManager.find(Student.class, studentId).getDepartment().getIdDepartment());
+    }
+
+    // Test 4: Champ hors liste refusé
+    @Test
+    void update_ShouldRejectFieldsOutsideWhitelist() {
+        assertThrows(BadRequestException.class, () -> partialUpdater.update(Student.class, "idStudent", studentId, null,
+                Map.of("version", 42), StudentService.PATCHABLE_FIELDS));
+    }
+
+    // Test 5: null explicite : colonne et clé étrangère remises à NULL
+    @Test
+    void update_ShouldClearColumns_WhenValueIsNull() {
+        // Arrange
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("email", null);
+        changes.put("department", null);
+
+        // Act
+        int rows = partialUpdater.update(Student.class, "idStudent", studentId, null, changes, StudentService.PATCHABLE_FIELDS);
+
+        // Assert
+        assertEquals(1, rows);
+        Student reloaded = entityManager.find(Student.class, studentId);
+        assertNull(reloaded.getEmail());
+        assertNull(reloaded.getDepartment());
+    }
+
+    // Test 6: Valeur de mauvais type : requête invalide, sans le message de Jackson
+    @Test
+    void update_ShouldRejectValuesOfWrongType() {
+        BadRequestException e = assertThrows(BadRequestException.class, () -> partialUpdater.update(Student.class,
+                "idStudent", studentId, null, Map.of("dateOfBirth", "not-a-date"), StudentService.PATCHABLE_FIELDS));
+        assertEquals("Invalid value for dateOfBirth", e.getMessage());
+    }
+}
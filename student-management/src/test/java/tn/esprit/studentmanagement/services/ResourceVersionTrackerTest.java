@@ -0,0 +1,62 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.services.ResourceVersionTracker.Resource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionTrackerTest {
+
+    private final ResourceVersionTracker tracker = new ResourceVersionTracker();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Test 1: Une vue change avec les ressources qu'elle embarque, pas avec les autres
+    @Test
+    void tag_ShouldFollowEmbeddedResourcesOnly() {
+        String student = tracker.tag(Resource.STUDENT);
+        String department = tracker.tag(Resource.DEPARTMENT);
+
+        tracker.changed(Resource.ENROLLMENT);
+        assertEquals(student, tracker.tag(Resource.STUDENT));
+
+        tracker.changed(Resource.DEPARTMENT);
+        assertNotEquals(student, tracker.tag(Resource.STUDENT));
+        assertNotEquals(department, tracker.tag(Resource.DEPARTMENT));
+    }
+
+    // Test 2: Dans une transaction, le changement n'est visible qu'après sa fin, une seule fois par ressource
+    @Test
+    void changed_ShouldApplyAfterTransactionCompletion() {
+        String before = tracker.tag(Resource.ENROLLMENT);
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.changed(Resource.ENROLLMENT);
+        tracker.changed(Resource.ENROLLMENT);
+        assertEquals(before, tracker.tag(Resource.ENROLLMENT));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        // Générations dans l'ordre DEPARTMENT, COURSE, STUDENT, ENROLLMENT
+        assertTrue(before.endsWith(".0.0.0.0"));
+        assertTrue(tracker.tag(Resource.ENROLLMENT).endsWith(".0.0.0.1"));
+        assertNull(TransactionSynchronizationManager.getResource(tracker));
+    }
+
+    // Test 3: Correspondance entité -> ressource
+    @Test
+    void resourceOf_ShouldMapEntityTypes() {
+        assertEquals(Resource.ENROLLMENT, ResourceVersionTracker.resourceOf(Enrollment.class));
+        assertThrows(IllegalArgumentException.class, () -> ResourceVersionTracker.resourceOf(String.class));
+    }
+}
@@ -0,0 +1,52 @@
+package tn.esprit.studentmanagement.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import tn.esprit.studentmanagement.dto.ExportFormat;
+import tn.esprit.studentmanagement.dto.StudentWithDepartment;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowExporterTest {
+
+    private final RowExporter rowExporter = new RowExporter(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private Stream<StudentWithDepartment> rows() {
+        return Stream.of(
+                new StudentWithDepartment(1L, "John", "Doe", "john@example.com", null, LocalDate.of(2000, 1, 2), 3L, "Computer Science"),
+                new StudentWithDepartment(2L, "Jane", "O\"Neil, Jr", null, null, null, null, null));
+    }
+
+    // Test 1: CSV avec en-tête, champs vides pour null, guillemets RFC 4180
+    @Test
+    void export_ShouldWriteCsvWithHeaderAndQuoting() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = rowExporter.export(rows(), StudentWithDepartment.class, ExportFormat.CSV, out);
+
+        assertEquals(2, count);
+        assertEquals("idStudent,firstName,lastName,email,phone,dateOfBirth,idDepartment,departmentName\r\n"
+                + "1,John,Doe,john@example.com,,2000-01-02,3,Computer Science\r\n"
+                + "2,Jane,\"O\"\"Neil, Jr\",,,,,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    // Test 2: NDJSON, un document par ligne
+    @Test
+    void export_ShouldWriteOneJsonDocumentPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = rowExporter.export(rows(), StudentWithDepartment.class, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"idStudent\":1,\"firstName\":\"John\""));
+        assertTrue(lines[1].contains("\"lastName\":\"O\\\"Neil, Jr\""));
+    }
+}
@@ -5,13 +5,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import tn.esprit.studentmanagement.dto.BulkDeleteReport;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.PageResponse;
+import tn.esprit.studentmanagement.dto.StudentBulkDelete;
+import tn.esprit.studentmanagement.dto.StudentSearchCriteria;
+import tn.esprit.studentmanagement.dto.StudentTranscript;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,6 +42,18 @@ class StudentServiceTest {
     
     @Mock
     private StudentRepository studentRepository;
+
+    @Mock
+    private PartialUpdater partialUpdater;
+
+    @Mock
+    private IGradeStatisticsService gradeStatisticsService;
+
+    @Mock
+    private BulkDeleter bulkDeleter;
+
+    @Mock
+    private EnrollmentAdmission enrollmentAdmission;
     
     @InjectMocks
     private StudentService studentService;
@@ -158,18 +190,22 @@ class StudentServiceTest {
         verify(studentRepository).save(student);
     }
     
-    // Test 7: Supprimer un étudiant (succès)
+    // Test 7: Supprimer un étudiant (succès) : ses notes sortent des statistiques, ses places sont libérées
     @Test
-    void deleteStudent_ShouldCallRepositoryDelete() {
+    void deleteStudent_ShouldDeleteWithEnrollments() {
         // Arrange
         Long studentId = 1L;
-        doNothing().when(studentRepository).deleteById(studentId);
+        GradeSample sample = new GradeSample(studentId, 10L, 3L, 15.0, Status.COMPLETED);
+        when(bulkDeleter.deleteStudents(List.of(studentId)))
+                .thenReturn(new BulkDeleter.Outcome(new BulkDeleteReport(0, 1, 0, 1), List.of(sample)));
         
         // Act
         studentService.deleteStudent(studentId);
         
         // Assert
-        verify(studentRepository).deleteById(studentId);
+        verify(bulkDeleter).deleteStudents(List.of(studentId));
+        verify(gradeStatisticsService).recordChange(sample, null);
+        verify(enrollmentAdmission).forget(Set.of(10L));
     }
     
     // Test 8: Supprimer un étudiant (exception)
@@ -178,7 +214,7 @@ class StudentServiceTest {
         // Arrange
         Long studentId = 1L;
         RuntimeException expectedException = new RuntimeException("Delete failed");
-        doThrow(expectedException).when(studentRepository).deleteById(studentId);
+        when(bulkDeleter.deleteStudents(List.of(studentId))).thenThrow(expectedException);
         
         // Act & Assert
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> {
@@ -186,7 +222,8 @@ class StudentServiceTest {
         });
         
         assertEquals(expectedException, thrown);
-        verify(studentRepository).deleteById(studentId);
+        verify(bulkDeleter).deleteStudents(List.of(studentId));
+        verifyNoInteractions(gradeStatisticsService);
     }
     
     // Test 9: getAllStudents avec liste vide
@@ -220,4 +257,255 @@ class StudentServiceTest {
         // Mais le code devrait s'exécuter sans erreur
         verify(studentRepository).findAll();
     }
-}
\ No newline at end of file
+
+    // Test 11: Pagination par curseur - page suivante disponible
+    @Test
+    void getStudentsPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Arrange
+        Student s1 = new Student();
+        s1.setIdStudent(1L);
+        Student s2 = new Student();
+        s2.setIdStudent(2L);
+        Student s3 = new Student();
+        s3.setIdStudent(3L);
+        when(studentRepository.findByIdStudentGreaterThanOrderByIdStudentAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(s1, s2, s3));
+
+        // Act
+        CursorPage<Student> page = studentService.getStudentsPage(null, 2);
+
+        // Assert
+        assertEquals(2, page.content().size());
+        assertEquals(2, page.size());
+        assertEquals(2L, CursorPage.decodeCursor(page.next()));
+    }
+
+    // Test 12: Pagination par curseur - dernière page
+    @Test
+    void getStudentsPage_ShouldReturnNullCursor_OnLastPage() {
+        // Arrange
+        Student s3 = new Student();
+        s3.setIdStudent(3L);
+        String cursor = CursorPage.encodeCursor(2L);
+        when(studentRepository.findByIdStudentGreaterThanOrderByIdStudentAsc(2L, Limit.of(3)))
+                .thenReturn(Arrays.asList(s3));
+
+        // Act
+        CursorPage<Student> page = studentService.getStudentsPage(cursor, 2);
+
+        // Assert
+        assertEquals(1, page.content().size());
+        assertNull(page.next());
+    }
+
+    // Test 13: Pagination par curseur - taille bornée
+    @Test
+    void getStudentsPage_ShouldClampPageSize() {
+        // Arrange
+        when(studentRepository.findByIdStudentGreaterThanOrderByIdStudentAsc(eq(0L), any(Limit.class)))
+                .thenReturn(Arrays.asList());
+
+        // Act
+        CursorPage<Student> page = studentService.getStudentsPage(null, 100000);
+
+        // Assert
+        assertEquals(StudentService.MAX_PAGE_SIZE, page.size());
+        verify(studentRepository).findByIdStudentGreaterThanOrderByIdStudentAsc(0L, Limit.of(StudentService.MAX_PAGE_SIZE + 1));
+    }
+
+    // Test 14: Pagination par curseur - curseur invalide
+    @Test
+    void getStudentsPage_ShouldThrow_WhenCursorInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> studentService.getStudentsPage("%%%", 10));
+        verifyNoInteractions(studentRepository);
+    }
+
+    // Test 15: Vue transcript construite à partir du graphe chargé
+    @Test
+    void getStudentsTranscript_ShouldMapEnrollmentsAndCourses() {
+        // Arrange
+        Department department = new Department();
+        department.setName("Computer Science");
+        Course course = new Course();
+        course.setIdCourse(7L);
+        course.setCode("CS101");
+        course.setCredit(3);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setIdEnrollment(5L);
+        enrollment.setCourse(course);
+        enrollment.setGrade(15.0);
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setDepartment(department);
+        student.setEnrollments(List.of(enrollment));
+        when(studentRepository.findAllWithTranscript()).thenReturn(List.of(student));
+
+        // Act
+        List<StudentTranscript> result = studentService.getStudentsTranscript();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Computer Science", result.get(0).departmentName());
+        assertEquals("CS101", result.get(0).enrollments().get(0).courseCode());
+        assertEquals(3, result.get(0).enrollments().get(0).credit());
+        verify(studentRepository).findAllWithTranscript();
+    }
+
+    // Test 16: Recherche paginée avec tri
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchStudents_ShouldReturnPageResponse() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setLastName("Doe");
+        when(studentRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(student), invocation.getArgument(1), 1));
+
+        // Act
+        PageResponse<Student> result = studentService.searchStudents(
+                new StudentSearchCriteria("Do", null, null, null, null), 0, 20, "lastName,desc");
+
+        // Assert
+        assertEquals(1, result.totalElements());
+        assertEquals(20, result.size());
+        assertEquals("Doe", result.content().get(0).getLastName());
+    }
+
+    // Test 17: Tri sur une colonne non indexée refusé
+    @Test
+    void searchStudents_ShouldRejectUnsupportedSortField() {
+        StudentSearchCriteria criteria = new StudentSearchCriteria(null, null, null, null, null);
+        assertThrows(IllegalArgumentException.class,
+                () -> studentService.searchStudents(criteria, 0, 20, "address"));
+        verifyNoInteractions(studentRepository);
+    }
+
+    // Test 18: Tri par défaut sur l'identifiant, second critère stable sinon
+    @Test
+    void parseSort_ShouldAppendIdForStableOrdering() {
+        assertEquals(Sort.by("idStudent"), StudentService.parseSort(null));
+        assertEquals(Sort.by(Sort.Direction.DESC, "lastName").and(Sort.by("idStudent")),
+                StudentService.parseSort("lastName,desc"));
+    }
+
+    // Test 19: Relevé d'un étudiant avec moyenne pondérée par les crédits (abandons exclus)
+    @Test
+    void getStudentTranscript_ShouldComputeCreditWeightedGpa() {
+        // Arrange
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setLastName("Doe");
+        student.setEnrollments(List.of(
+                transcriptEnrollment(3, 10.0, Status.COMPLETED),
+                transcriptEnrollment(1, 18.0, Status.COMPLETED),
+                transcriptEnrollment(4, 2.0, Status.DROPPED),
+                transcriptEnrollment(2, null, Status.ACTIVE)));
+        when(studentRepository.findWithTranscriptById(1L)).thenReturn(Optional.of(student));
+
+        // Act
+        StudentTranscript transcript = studentService.getStudentTranscript(1L);
+
+        // Assert
+        assertEquals(4, transcript.enrollments().size());
+        assertEquals(12.0, transcript.gpa());
+        assertEquals(4, transcript.gpaCredits());
+    }
+
+    // Test 20: Relevé d'un étudiant inexistant
+    @Test
+    void getStudentTranscript_ShouldThrow_WhenStudentMissing() {
+        when(studentRepository.findWithTranscriptById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> studentService.getStudentTranscript(99L));
+    }
+
+    // Test 21: Mise à jour avec une version périmée (If-Match)
+    @Test
+    void updateStudent_ShouldThrow_WhenExpectedVersionIsStale() {
+        Student student = new Student();
+        student.setIdStudent(1L);
+        when(studentRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> studentService.updateStudent(student, 2L));
+        verify(studentRepository, never()).save(any());
+    }
+
+    // Test 22: Mise à jour sans If-Match : version courante reprise, notes déplacées vers le nouveau département
+    @Test
+    void updateStudent_ShouldUseCurrentVersionAndMoveStatistics() {
+        // Arrange
+        Department department = new Department();
+        department.setIdDepartment(7L);
+        Student student = new Student();
+        student.setIdStudent(1L);
+        student.setDepartment(department);
+        when(studentRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        when(studentRepository.findDepartmentIdById(1L)).thenReturn(Optional.of(5L));
+        when(studentRepository.save(student)).thenReturn(student);
+
+        // Act
+        studentService.updateStudent(student, null);
+
+        // Assert
+        assertEquals(3L, student.getVersion());
+        verify(gradeStatisticsService).moveStudent(1L, 5L, 7L);
+    }
+
+    // Test 23: PATCH d'un étudiant inexistant
+    @Test
+    void patchStudent_ShouldThrowNotFound_WhenNoRowUpdatedAndStudentMissing() {
+        Map<String, Object> changes = Map.of("email", "john@example.com");
+        when(partialUpdater.update(Student.class, "idStudent", 99L, 1L, changes, StudentService.PATCHABLE_FIELDS)).thenReturn(0);
+        when(studentRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> studentService.patchStudent(99L, changes, 1L));
+    }
+
+    // Test 24: PATCH avec une version périmée
+    @Test
+    void patchStudent_ShouldThrowConflict_WhenNoRowUpdatedAndStudentExists() {
+        Map<String, Object> changes = Map.of("email", "john@example.com");
+        when(partialUpdater.update(Student.class, "idStudent", 1L, 1L, changes, StudentService.PATCHABLE_FIELDS)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> studentService.patchStudent(1L, changes, 1L));
+        verifyNoInteractions(gradeStatisticsService);
+    }
+
+    private Enrollment transcriptEnrollment(int credit, Double grade, Status status) {
+        Course course = new Course();
+        course.setCredit(credit);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourse(course);
+        enrollment.setGrade(grade);
+        enrollment.setStatus(status);
+        return enrollment;
+    }
+
+    // Test 25: Suppression en masse par filtre
+    @Test
+    void deleteStudents_ShouldDeleteByFilter() {
+        // Arrange
+        StudentSearchCriteria filter = new StudentSearchCriteria(null, null, 3L, null, null);
+        BulkDeleteReport report = new BulkDeleteReport(0, 40, 0, 120);
+        when(bulkDeleter.deleteStudentsMatching(filter)).thenReturn(new BulkDeleter.Outcome(report, List.of()));
+
+        // Act
+        BulkDeleteReport result = studentService.deleteStudents(new StudentBulkDelete(null, filter));
+
+        // Assert
+        assertEquals(report, result);
+        verify(bulkDeleter, never()).deleteStudents(any());
+    }
+
+    // Test 26: Ids et filtre à la fois, ou aucun des deux : refusé
+    @Test
+    void deleteStudents_ShouldRejectAmbiguousRequest() {
+        StudentSearchCriteria filter = new StudentSearchCriteria("Doe", null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> studentService.deleteStudents(new StudentBulkDelete(List.of(1L), filter)));
+        assertThrows(IllegalArgumentException.class, () -> studentService.deleteStudents(new StudentBulkDelete(List.of(), null)));
+        verifyNoInteractions(bulkDeleter);
+    }
+}